@@ -1,6 +1,19 @@
 package com.decre.hadoop.hadoopbase.config;
 
+import com.decre.hadoop.hadoopbase.service.FileSystemPool;
+import com.decre.hadoop.hadoopbase.service.HdfsAppendOptions;
+import com.decre.hadoop.hadoopbase.service.HdfsAsyncService;
+import com.decre.hadoop.hadoopbase.service.HdfsLogAppender;
+import com.decre.hadoop.hadoopbase.service.HdfsMetadataCache;
+import com.decre.hadoop.hadoopbase.service.HdfsParallelReader;
+import com.decre.hadoop.hadoopbase.service.HdfsRetryPolicy;
 import com.decre.hadoop.hadoopbase.service.HdfsService;
+import com.decre.hadoop.hadoopbase.service.batch.HdfsBatchOperations;
+import com.decre.hadoop.hadoopbase.service.metrics.DefaultHdfsMetrics;
+import com.decre.hadoop.hadoopbase.service.tiering.HdfsAgeBasedMover;
+import com.decre.hadoop.hadoopbase.service.transfer.HdfsBulkTransfer;
+import com.decre.hadoop.hadoopbase.service.transfer.HdfsDirectorySync;
+import com.decre.hadoop.hadoopbase.service.usage.HdfsDiskUsage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,10 +30,342 @@ public class HdfsConfig {
     @Value("${hdfs.defaultFS}")
     private String defaultHdfsUri;
 
+    /**
+     * 每个 用户+URI 的FileSystem句柄数量
+     */
+    @Value("${hdfs.pool.size-per-key:1}")
+    private int poolSizePerKey;
+
+    /**
+     * 批量传输的并行线程数
+     */
+    @Value("${hdfs.transfer.parallelism:8}")
+    private int transferParallelism;
+
+    /**
+     * 批量传输时单个文件的缓冲区大小
+     */
+    @Value("${hdfs.transfer.buffer-size:131072}")
+    private int transferBufferSize;
+
+    /**
+     * 批量命名空间操作的并行度
+     */
+    @Value("${hdfs.batch.parallelism:16}")
+    private int batchParallelism;
+
+    /**
+     * 并行读取的线程数
+     */
+    @Value("${hdfs.parallel-read.threads:8}")
+    private int parallelReadThreads;
+
+    /**
+     * 并行读取时单个片段的大小
+     */
+    @Value("${hdfs.parallel-read.chunk-size:8388608}")
+    private int parallelReadChunkSize;
+
+    /**
+     * 异步操作的IO线程数
+     */
+    @Value("${hdfs.async.threads:16}")
+    private int asyncThreads;
+
+    /**
+     * 异步操作的等待队列长度，队列满时直接拒绝
+     */
+    @Value("${hdfs.async.queue-capacity:1000}")
+    private int asyncQueueCapacity;
+
+    /**
+     * 空间占用统计时并行遍历目录的线程数
+     */
+    @Value("${hdfs.usage.parallelism:16}")
+    private int usageParallelism;
+
+    /**
+     * 追加写入时缓冲达到该字节数立即提交
+     */
+    @Value("${hdfs.append.flush-bytes:1048576}")
+    private int appendFlushBytes;
+
+    /**
+     * 追加写入的定时提交间隔，单位毫秒
+     */
+    @Value("${hdfs.append.flush-interval:200}")
+    private long appendFlushInterval;
+
+    /**
+     * 追加写入的文件达到该字节数时滚动
+     */
+    @Value("${hdfs.append.roll-bytes:134217728}")
+    private long appendRollBytes;
+
+    /**
+     * 追加写入的文件打开超过该时长时滚动，单位毫秒
+     */
+    @Value("${hdfs.append.roll-interval:3600000}")
+    private long appendRollInterval;
+
+    /**
+     * 追加写入的持久化方式：HFLUSH、HSYNC
+     */
+    @Value("${hdfs.append.durability:HFLUSH}")
+    private HdfsAppendOptions.Durability appendDurability;
+
+    /**
+     * 是否开启元数据缓存
+     */
+    @Value("${hdfs.metadata-cache.enabled:false}")
+    private boolean metadataCacheEnabled;
+
+    /**
+     * 元数据缓存有效期，单位毫秒
+     */
+    @Value("${hdfs.metadata-cache.ttl:5000}")
+    private long metadataCacheTtl;
+
+    /**
+     * 元数据缓存最多缓存的路径数量
+     */
+    @Value("${hdfs.metadata-cache.max-entries:10000}")
+    private int metadataCacheMaxEntries;
+
+    /**
+     * 是否记录HdfsService的监控指标
+     */
+    @Value("${hdfs.metrics.enabled:true}")
+    private boolean metricsEnabled;
+
+    /**
+     * 监控指标在JMX中的ObjectName
+     */
+    @Value("${hdfs.metrics.jmx-name:com.decre.hadoop.hadoopbase:type=HdfsMetrics}")
+    private String metricsJmxName;
+
+    /**
+     * 读取DataNode数据的socket超时，单位毫秒，对应dfs.client.socket-timeout，未设置时使用Hadoop默认值（下同）
+     */
+    @Value("${hdfs.client.socket-timeout:#{null}}")
+    private Integer clientSocketTimeout;
+
+    /**
+     * 向DataNode写数据的socket超时，单位毫秒，对应dfs.datanode.socket.write.timeout
+     */
+    @Value("${hdfs.client.socket-write-timeout:#{null}}")
+    private Integer clientSocketWriteTimeout;
+
+    /**
+     * 连接NameNode的超时，单位毫秒，对应ipc.client.connect.timeout
+     */
+    @Value("${hdfs.client.connect-timeout:#{null}}")
+    private Integer clientConnectTimeout;
+
+    /**
+     * 连接NameNode失败时的重试次数，对应ipc.client.connect.max.retries
+     */
+    @Value("${hdfs.client.connect-max-retries:#{null}}")
+    private Integer clientConnectMaxRetries;
+
+    /**
+     * 连接NameNode超时后的重试次数，对应ipc.client.connect.max.retries.on.timeouts
+     */
+    @Value("${hdfs.client.connect-max-retries-on-timeouts:#{null}}")
+    private Integer clientConnectMaxRetriesOnTimeouts;
+
+    /**
+     * 获取block失败的最大次数，对应dfs.client.max.block.acquire.failures
+     */
+    @Value("${hdfs.client.max-block-acquire-failures:#{null}}")
+    private Integer clientMaxBlockAcquireFailures;
+
+    /**
+     * 获取block失败后重试等待的基准时间，单位毫秒，对应dfs.client.retry.window.base
+     */
+    @Value("${hdfs.client.retry-window-base:#{null}}")
+    private Integer clientRetryWindowBase;
+
+    /**
+     * HA模式下NameNode切换的最大尝试次数，对应dfs.client.failover.max.attempts
+     */
+    @Value("${hdfs.client.failover-max-attempts:#{null}}")
+    private Integer clientFailoverMaxAttempts;
+
+    /**
+     * hedged read的线程数，大于0时开启，对应dfs.client.hedged.read.threadpool.size
+     * <p>只对positional read（readRange、copyRange、并行读取）生效：超过阈值还没有返回时，向另一个DataNode发起同样的读取，使用先返回的结果。</p>
+     */
+    @Value("${hdfs.client.hedged-read.thread-pool-size:#{null}}")
+    private Integer hedgedReadThreadPoolSize;
+
+    /**
+     * 发起hedged read的等待阈值，单位毫秒，对应dfs.client.hedged.read.threshold.millis
+     */
+    @Value("${hdfs.client.hedged-read.threshold-millis:#{null}}")
+    private Long hedgedReadThresholdMillis;
+
+    /**
+     * 客户端读写缓冲区大小，对应io.file.buffer.size
+     */
+    @Value("${hdfs.client.io-buffer-size:#{null}}")
+    private Integer clientIoBufferSize;
+
+    /**
+     * 写数据的packet大小，对应dfs.client-write-packet-size
+     */
+    @Value("${hdfs.client.write-packet-size:#{null}}")
+    private Integer clientWritePacketSize;
+
+    /**
+     * 打开文件时预取的block位置信息的字节范围，对应dfs.client.read.prefetch.size
+     */
+    @Value("${hdfs.client.read-prefetch-size:#{null}}")
+    private Long clientReadPrefetchSize;
+
+    /**
+     * 幂等操作（exists、getFileStatus、listStatus、open、mkdir、download）的最多执行次数，1表示不重试
+     */
+    @Value("${hdfs.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    /**
+     * 第一次重试前的等待时间，单位毫秒，之后每次翻倍
+     */
+    @Value("${hdfs.retry.initial-backoff:200}")
+    private long retryInitialBackoff;
+
+    /**
+     * 单次重试等待时间上限，单位毫秒
+     */
+    @Value("${hdfs.retry.max-backoff:5000}")
+    private long retryMaxBackoff;
+
     @Bean
-    public HdfsService getHbaseService() {
+    public org.apache.hadoop.conf.Configuration hdfsConfiguration() {
         org.apache.hadoop.conf.Configuration conf = new org.apache.hadoop.conf.Configuration();
         conf.set("fs.defaultFS", defaultHdfsUri);
-        return new HdfsService(conf, defaultHdfsUri);
+        setIfPresent(conf, "dfs.client.socket-timeout", clientSocketTimeout);
+        setIfPresent(conf, "dfs.datanode.socket.write.timeout", clientSocketWriteTimeout);
+        setIfPresent(conf, "ipc.client.connect.timeout", clientConnectTimeout);
+        setIfPresent(conf, "ipc.client.connect.max.retries", clientConnectMaxRetries);
+        setIfPresent(conf, "ipc.client.connect.max.retries.on.timeouts", clientConnectMaxRetriesOnTimeouts);
+        setIfPresent(conf, "dfs.client.max.block.acquire.failures", clientMaxBlockAcquireFailures);
+        setIfPresent(conf, "dfs.client.retry.window.base", clientRetryWindowBase);
+        setIfPresent(conf, "dfs.client.failover.max.attempts", clientFailoverMaxAttempts);
+        setIfPresent(conf, "dfs.client.hedged.read.threadpool.size", hedgedReadThreadPoolSize);
+        setIfPresent(conf, "dfs.client.hedged.read.threshold.millis", hedgedReadThresholdMillis);
+        setIfPresent(conf, "io.file.buffer.size", clientIoBufferSize);
+        setIfPresent(conf, "dfs.client-write-packet-size", clientWritePacketSize);
+        setIfPresent(conf, "dfs.client.read.prefetch.size", clientReadPrefetchSize);
+        return conf;
+    }
+
+    private static void setIfPresent(org.apache.hadoop.conf.Configuration conf, String name, Number value) {
+        if (value != null) {
+            conf.set(name, value.toString());
+        }
+    }
+
+    /**
+     * FileSystem句柄池，容器关闭时统一close
+     */
+    @Bean(destroyMethod = "close")
+    public FileSystemPool fileSystemPool(org.apache.hadoop.conf.Configuration hdfsConfiguration) {
+        return new FileSystemPool(hdfsConfiguration, defaultHdfsUri, poolSizePerKey);
+    }
+
+    /**
+     * HdfsService的监控指标，注册到JMX，容器关闭时注销
+     */
+    @Bean(destroyMethod = "close")
+    public DefaultHdfsMetrics hdfsMetrics() {
+        DefaultHdfsMetrics metrics = new DefaultHdfsMetrics();
+        if (metricsEnabled) {
+            metrics.registerMBean(metricsJmxName);
+        }
+        return metrics;
+    }
+
+    @Bean
+    public HdfsService getHbaseService(org.apache.hadoop.conf.Configuration hdfsConfiguration, FileSystemPool fileSystemPool, DefaultHdfsMetrics hdfsMetrics) {
+        HdfsService hdfsService = new HdfsService(hdfsConfiguration, defaultHdfsUri, fileSystemPool);
+        if (metadataCacheEnabled) {
+            hdfsService.setMetadataCache(new HdfsMetadataCache(metadataCacheTtl, metadataCacheMaxEntries));
+        }
+        if (metricsEnabled) {
+            hdfsService.setMetrics(hdfsMetrics);
+        }
+        hdfsService.setRetryPolicy(new HdfsRetryPolicy(retryMaxAttempts, retryInitialBackoff, retryMaxBackoff));
+        return hdfsService;
+    }
+
+    /**
+     * HDFS批量上传/下载，容器关闭时关闭线程池
+     */
+    @Bean(destroyMethod = "close")
+    public HdfsBulkTransfer hdfsBulkTransfer(HdfsService hdfsService) {
+        return new HdfsBulkTransfer(hdfsService, transferParallelism, transferBufferSize);
+    }
+
+    /**
+     * HDFS批量命名空间操作，容器关闭时关闭线程池
+     */
+    @Bean(destroyMethod = "close")
+    public HdfsBatchOperations hdfsBatchOperations(HdfsService hdfsService) {
+        return new HdfsBatchOperations(hdfsService, batchParallelism);
+    }
+
+    /**
+     * 按block并行读取，容器关闭时关闭线程池
+     */
+    @Bean(destroyMethod = "close")
+    public HdfsParallelReader hdfsParallelReader(HdfsService hdfsService) {
+        return new HdfsParallelReader(hdfsService, parallelReadThreads, parallelReadChunkSize);
+    }
+
+    /**
+     * 本地目录到HDFS的增量同步
+     */
+    @Bean
+    public HdfsDirectorySync hdfsDirectorySync(HdfsService hdfsService, HdfsBulkTransfer hdfsBulkTransfer, HdfsBatchOperations hdfsBatchOperations) {
+        return new HdfsDirectorySync(hdfsService, hdfsBulkTransfer, hdfsBatchOperations);
+    }
+
+    /**
+     * HdfsService的异步版本，容器关闭时关闭线程池
+     */
+    @Bean(destroyMethod = "close")
+    public HdfsAsyncService hdfsAsyncService(HdfsService hdfsService) {
+        return new HdfsAsyncService(hdfsService, asyncThreads, asyncQueueCapacity);
+    }
+
+    /**
+     * 目录树空间占用统计，容器关闭时关闭线程池
+     */
+    @Bean(destroyMethod = "close")
+    public HdfsDiskUsage hdfsDiskUsage(HdfsService hdfsService) {
+        return new HdfsDiskUsage(hdfsService, usageParallelism);
+    }
+
+    /**
+     * 日志类数据的批量提交追加写入，容器关闭时提交缓冲的记录并关闭文件
+     */
+    @Bean(destroyMethod = "close")
+    public HdfsLogAppender hdfsLogAppender(HdfsService hdfsService) {
+        return new HdfsLogAppender(hdfsService, HdfsAppendOptions.defaults()
+                .setFlushBytes(appendFlushBytes)
+                .setFlushIntervalMillis(appendFlushInterval)
+                .setRollBytes(appendRollBytes)
+                .setRollIntervalMillis(appendRollInterval)
+                .setDurability(appendDurability));
+    }
+
+    /**
+     * 按文件年龄设置存储策略、转换纠删码
+     */
+    @Bean
+    public HdfsAgeBasedMover hdfsAgeBasedMover(HdfsService hdfsService) {
+        return new HdfsAgeBasedMover(hdfsService);
     }
 }
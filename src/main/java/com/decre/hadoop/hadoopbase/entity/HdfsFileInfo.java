@@ -0,0 +1,74 @@
+package com.decre.hadoop.hadoopbase.entity;
+
+import org.apache.hadoop.fs.FileStatus;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 15:00
+ * @since 1.0.0
+ * Descirption: HDFS文件或目录的元数据
+ */
+public class HdfsFileInfo {
+
+    private final String path;
+
+    private final boolean directory;
+
+    private final long length;
+
+    private final long modificationTime;
+
+    private final short replication;
+
+    private final long blockSize;
+
+    public HdfsFileInfo(String path, boolean directory, long length, long modificationTime, short replication, long blockSize) {
+        this.path = path;
+        this.directory = directory;
+        this.length = length;
+        this.modificationTime = modificationTime;
+        this.replication = replication;
+        this.blockSize = blockSize;
+    }
+
+    public static HdfsFileInfo of(FileStatus status) {
+        return new HdfsFileInfo(status.getPath().toString(), status.isDirectory(), status.getLen(),
+                status.getModificationTime(), status.getReplication(), status.getBlockSize());
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean isDirectory() {
+        return directory;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getModificationTime() {
+        return modificationTime;
+    }
+
+    public short getReplication() {
+        return replication;
+    }
+
+    public long getBlockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public String toString() {
+        return "HdfsFileInfo{" +
+                "path='" + path + '\'' +
+                ", directory=" + directory +
+                ", length=" + length +
+                ", modificationTime=" + modificationTime +
+                ", replication=" + replication +
+                ", blockSize=" + blockSize +
+                '}';
+    }
+}
@@ -0,0 +1,210 @@
+package com.decre.hadoop.hadoopbase.mr;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 10:00
+ * @since 1.0.0
+ * Descirption: key为字节序列、value为int的开放寻址哈希表，用于map端聚合单词计数
+ * <p>key的字节拷贝到连续的byte[]中，每个entry只占用几个int，不创建Text、Integer等对象，
+ * 相同单词再次出现时只是对应槽位的计数加一，没有任何分配。</p>
+ * <p>非线程安全，一个map task使用一个实例。</p>
+ */
+public class BytesIntHashMap {
+
+    private static final int EMPTY = -1;
+
+    /**
+     * 槽位数组，保存entry下标，长度为2的幂，装载因子不超过0.5
+     */
+    private int[] slots;
+
+    private int[] hashes;
+
+    private int[] offsets;
+
+    private int[] lengths;
+
+    private int[] counts;
+
+    private byte[] arena;
+
+    private int arenaSize;
+
+    private int size;
+
+    private final int initialCapacity;
+
+    public BytesIntHashMap(int initialCapacity) {
+        this.initialCapacity = Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1);
+        allocate(this.initialCapacity);
+    }
+
+    private void allocate(int capacity) {
+        slots = new int[capacity * 2];
+        Arrays.fill(slots, EMPTY);
+        hashes = new int[capacity];
+        offsets = new int[capacity];
+        lengths = new int[capacity];
+        counts = new int[capacity];
+        arena = new byte[capacity * 8];
+    }
+
+    /**
+     * 累加key的计数，key不存在时新增
+     *
+     * @param bytes  key所在的数组
+     * @param start  key的起始位置
+     * @param length key的长度
+     * @param delta  增加的计数
+     */
+    public void add(byte[] bytes, int start, int length, int delta) {
+        int hash = hash(bytes, start, length);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != EMPTY) {
+            if (hashes[entry] == hash && equals(entry, bytes, start, length)) {
+                counts[entry] += delta;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == hashes.length) {
+            growEntries();
+        }
+        if (arenaSize + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + length));
+        }
+        System.arraycopy(bytes, start, arena, arenaSize, length);
+        hashes[size] = hash;
+        offsets[size] = arenaSize;
+        lengths[size] = length;
+        counts[size] = delta;
+        arenaSize += length;
+        slots[slot] = size++;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+    }
+
+    /**
+     * 获取key的计数，不存在时返回0
+     */
+    public int get(byte[] bytes, int start, int length) {
+        int hash = hash(bytes, start, length);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != EMPTY) {
+            if (hashes[entry] == hash && equals(entry, bytes, start, length)) {
+                return counts[entry];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * 按插入顺序遍历所有entry，回调中传入的是内部数组，不能修改也不能在回调之后继续持有
+     */
+    public void forEach(EntryVisitor visitor) throws IOException, InterruptedException {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(arena, offsets[i], lengths[i], counts[i]);
+        }
+    }
+
+    /**
+     * 清空所有entry；数组没有扩容过时保留复用，扩容过时恢复为初始容量，memoryBytes随之下降
+     */
+    public void clear() {
+        if (hashes.length > initialCapacity || arena.length > initialCapacity * 8) {
+            allocate(initialCapacity);
+        } else {
+            Arrays.fill(slots, EMPTY);
+        }
+        size = 0;
+        arenaSize = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 已分配的内存字节数（近似值），包括还没有使用的容量
+     */
+    public long memoryBytes() {
+        return 4L * slots.length + 16L * hashes.length + arena.length;
+    }
+
+    /**
+     * entry实际占用的字节数（近似值），用于判断是否需要提前输出：每个entry两个槽位和4个int，再加上key的字节；
+     * 与容量无关，空表为0，扩容后最多分配到该值的2倍左右
+     */
+    public long usedBytes() {
+        return 24L * size + arenaSize;
+    }
+
+    private boolean equals(int entry, byte[] bytes, int start, int length) {
+        if (lengths[entry] != length) {
+            return false;
+        }
+        int offset = offsets[entry];
+        for (int i = 0; i < length; i++) {
+            if (arena[offset + i] != bytes[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void growEntries() {
+        int capacity = hashes.length * 2;
+        hashes = Arrays.copyOf(hashes, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+    }
+
+    private void rehash(int slotCount) {
+        slots = new int[slotCount];
+        Arrays.fill(slots, EMPTY);
+        int mask = slotCount - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hashes[i] & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i;
+        }
+    }
+
+    /**
+     * FNV-1a，再做一次混合，避免线性探测时低位聚集
+     */
+    private static int hash(byte[] bytes, int start, int length) {
+        int hash = 0x811c9dc5;
+        for (int i = start; i < start + length; i++) {
+            hash = (hash ^ bytes[i]) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 遍历entry的回调
+     */
+    public interface EntryVisitor {
+
+        /**
+         * @param bytes  key所在的数组
+         * @param start  key的起始位置
+         * @param length key的长度
+         * @param count  key的计数
+         */
+        void visit(byte[] bytes, int start, int length, int count) throws IOException, InterruptedException;
+    }
+}
@@ -1,16 +1,34 @@
 package com.decre.hadoop.hadoopbase.mr;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.Lz4Codec;
+import org.apache.hadoop.io.compress.SnappyCodec;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Counters;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.TaskCounter;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.CombineTextInputFormat;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.partition.InputSampler;
+import org.apache.hadoop.mapreduce.lib.partition.TotalOrderPartitioner;
+import org.apache.hadoop.util.NativeCodeLoader;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 
@@ -19,14 +37,178 @@ import java.io.IOException;
  * @date 2019/4/5 0005 20:10
  * @since 1.0.0
  * Descirption: 自定义wordcount的MapReduce类
+ * <p>通过ToolRunner运行，支持-D、-fs、-conf等通用参数，HDFS地址从classpath中的core-site.xml或-fs读取：</p>
+ * <pre>
+ * hadoop jar hadoop-base.jar com.decre.hadoop.hadoopbase.mr.WordCountMR [-r 4] [-combine 268435456] [-total-order] [-compress lz4] [-sort-mb 256] [-overwrite] /testDir /output1
+ * </pre>
  */
-public class WordCountMR {
+public class WordCountMR extends Configured implements Tool {
+
+    /**
+     * 是否在map端用哈希表聚合单词计数（in-mapper combining），默认开启
+     */
+    public static final String IN_MAPPER_COMBINING = "wordcount.map.in-mapper-combining";
+
+    /**
+     * map端聚合哈希表占用的内存达到该字节数时提前输出并清空，默认32MB
+     */
+    public static final String IN_MAPPER_MAX_BYTES = "wordcount.map.in-mapper-max-bytes";
+
+    /**
+     * 是否设置Combiner，在spill和merge时再次聚合，默认关闭
+     */
+    public static final String COMBINER = "wordcount.combiner";
+
+    /**
+     * 大于0时使用CombineTextInputFormat，把多个小文件合并为不超过该字节数的split，默认0（每个文件至少一个split）
+     */
+    public static final String COMBINE_MAX_SPLIT_SIZE = "wordcount.input.combine.max-split-size";
+
+    /**
+     * 是否抽样生成分区文件并使用TotalOrderPartitioner，输出在所有part文件之间全局有序，默认关闭；只有一个reduce时不生效
+     */
+    public static final String TOTAL_ORDER = "wordcount.partition.total-order";
+
+    /**
+     * 全排序抽样：每一行被抽样的概率，默认0.1
+     */
+    public static final String SAMPLE_FREQUENCY = "wordcount.partition.sample.frequency";
+
+    /**
+     * 全排序抽样：最多保留的单词样本数，默认100000
+     */
+    public static final String SAMPLE_MAX_SAMPLES = "wordcount.partition.sample.max-samples";
+
+    /**
+     * 全排序抽样：最多读取的split数量，默认10
+     */
+    public static final String SAMPLE_MAX_SPLITS = "wordcount.partition.sample.max-splits";
+
+    /**
+     * 全排序抽样：随机种子，默认为输出路径的hashCode，相同输出路径的分区边界可以复现
+     */
+    public static final String SAMPLE_SEED = "wordcount.partition.sample.seed";
+
+    /**
+     * map输出（shuffle数据）的压缩格式：lz4、snappy、default、gzip、bzip2或压缩类的全名，默认不压缩；
+     * Hadoop 3.1的lz4和snappy需要native库
+     */
+    public static final String MAP_OUTPUT_CODEC = "wordcount.map.output.codec";
+
+    private static final Logger logger = LoggerFactory.getLogger(WordCountMR.class);
+
+    /**
+     * 自定义计数器
+     */
+    public enum WordCountCounter {
+        /**
+         * map端读到的单词总数
+         */
+        INPUT_WORDS,
+        /**
+         * map端聚合哈希表输出的次数
+         */
+        IN_MAPPER_FLUSHES
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        System.exit(ToolRunner.run(new Configuration(), new WordCountMR(), args));
+    }
+
+    /**
+     * 参数：[-r reduce数量] [-combine 合并split的最大字节数] [-node-min 节点内split最小字节数] [-rack-min 机架内split最小字节数] [-total-order]
+     * [-compress 压缩格式] [-sort-mb 排序缓冲区MB] [-sort-factor 合并路数] [-spill-percent 溢写阈值] [-overwrite] 输入路径 输出路径
+     */
+    @Override
+    public int run(String[] args) throws Exception {
+        Configuration conf = getConf();
+        boolean overwrite = false;
+        int i = 0;
+        try {
+            for (; i < args.length && args[i].startsWith("-"); i++) {
+                switch (args[i]) {
+                    case "-r":
+                        conf.setInt(Job.NUM_REDUCES, Integer.parseInt(args[++i]));
+                        break;
+                    case "-combine":
+                        conf.setLong(COMBINE_MAX_SPLIT_SIZE, Long.parseLong(args[++i]));
+                        break;
+                    case "-node-min":
+                        conf.setLong(CombineFileInputFormat.SPLIT_MINSIZE_PERNODE, Long.parseLong(args[++i]));
+                        break;
+                    case "-rack-min":
+                        conf.setLong(CombineFileInputFormat.SPLIT_MINSIZE_PERRACK, Long.parseLong(args[++i]));
+                        break;
+                    case "-total-order":
+                        conf.setBoolean(TOTAL_ORDER, true);
+                        break;
+                    case "-compress":
+                        conf.set(MAP_OUTPUT_CODEC, args[++i]);
+                        break;
+                    case "-sort-mb":
+                        conf.setInt(Job.IO_SORT_MB, Integer.parseInt(args[++i]));
+                        break;
+                    case "-sort-factor":
+                        conf.setInt(Job.IO_SORT_FACTOR, Integer.parseInt(args[++i]));
+                        break;
+                    case "-spill-percent":
+                        conf.setFloat(Job.MAP_SORT_SPILL_PERCENT, Float.parseFloat(args[++i]));
+                        break;
+                    case "-overwrite":
+                        overwrite = true;
+                        break;
+                    default:
+                        return printUsage("未知参数：" + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            return printUsage("参数格式错误：" + args[i - 1]);
+        }
+        if (args.length - i != 2) {
+            return printUsage("需要指定输入路径和输出路径");
+        }
+
+        Path inputPath = new Path(args[i]);
+        Path outputPath = new Path(args[i + 1]);
+        FileSystem fileSystem = outputPath.getFileSystem(conf);
+        if (fileSystem.exists(outputPath)) {
+            if (!overwrite) {
+                return printUsage("输出路径已存在：" + outputPath + "，可以使用-overwrite删除");
+            }
+            fileSystem.delete(outputPath, true);
+        }
+        Job job = createJob(conf, inputPath, outputPath);
+
+        // job.submit()
+        // 最后提交任务（verbose布尔值 决定要不要将运行进度信息输出给用户
+        try {
+            boolean success = job.waitForCompletion(true);
+            logger.info("shuffle统计：{}", shuffleReport(job.getCounters()));
+            return success ? 0 : 1;
+        } finally {
+            fileSystem.delete(partitionFile(outputPath), false);
+        }
+    }
 
+    private static int printUsage(String message) {
+        System.err.println(message);
+        System.err.println("用法：WordCountMR [-r reduce数量] [-combine 合并split的最大字节数] [-node-min 节点内split最小字节数] "
+                + "[-rack-min 机架内split最小字节数] [-total-order] [-compress 压缩格式] [-sort-mb 排序缓冲区MB] [-sort-factor 合并路数] "
+                + "[-spill-percent 溢写阈值] [-overwrite] <输入路径> <输出路径>");
+        ToolRunner.printGenericCommandUsage(System.err);
+        return 2;
+    }
 
-    public static void main(String[] args) throws IOException, ClassNotFoundException, InterruptedException {
-        // TODO 怎么动态读取configuration
-        Configuration conf = new Configuration();
-        conf.set("fs.defaultFS", "hdfs://192.168.0.125:9000");
+    /**
+     * 创建wordcount的Job，输出目录需要不存在
+     *
+     * @param conf       Job的配置，in-mapper combining、Combiner、全排序等开关从这里读取
+     * @param inputPath  输入路径
+     * @param outputPath 输出路径
+     * @return org.apache.hadoop.mapreduce.Job
+     */
+    static Job createJob(Configuration conf, Path inputPath, Path outputPath) throws IOException, ClassNotFoundException, InterruptedException {
         // 通过conf获取job对象，该对象会组织所有的该MapReduce程序的所有组件
         Job job = Job.getInstance(conf);
 
@@ -36,36 +218,93 @@ public class WordCountMR {
         // 指定mapper类和reduce类
         job.setMapperClass(WordCountMapper.class);
         job.setReducerClass(WordCountReducer.class);
+        // 单词计数的求和满足结合律，Reducer可以直接作为Combiner
+        if (conf.getBoolean(COMBINER, false)) {
+            job.setCombinerClass(WordCountReducer.class);
+        }
         // 假如 mapTask的输出key-value类型，跟reduceTask的输出key-value类型一致，那么，以上两句代码可以不用设置
         // reduceTask的输入key-value类型 就是 mapTask的输出key-value类型。所以不需要指定
         // 指定reducetask的输出类型
         job.setMapOutputKeyClass(Text.class);
         job.setOutputValueClass(IntWritable.class);
+        // 排序和合并时直接比较序列化后的字节（跳过vint长度后逐字节比较），不反序列化为Text；
+        // Text在静态块中注册了该比较器，这里显式指定，避免被mapreduce.job.output.key.comparator.class覆盖为反序列化比较
+        job.setSortComparatorClass(Text.Comparator.class);
+
+        // map输出压缩：spill文件、merge和shuffle传输的都是压缩后的数据
+        String codecName = conf.get(MAP_OUTPUT_CODEC);
+        if (codecName != null && !"none".equalsIgnoreCase(codecName)) {
+            Class<? extends CompressionCodec> codecClass = new CompressionCodecFactory(conf).getCodecClassByName(codecName);
+            if (codecClass == null) {
+                throw new IllegalArgumentException("不支持的压缩格式：" + codecName);
+            }
+            if ((codecClass == Lz4Codec.class || codecClass == SnappyCodec.class) && !NativeCodeLoader.isNativeCodeLoaded()) {
+                logger.warn("本地没有加载Hadoop native库，{}需要集群节点上有native库", codecClass.getSimpleName());
+            }
+            job.getConfiguration().setBoolean(Job.MAP_OUTPUT_COMPRESS, true);
+            job.getConfiguration().setClass(Job.MAP_OUTPUT_COMPRESS_CODEC, codecClass, CompressionCodec.class);
+        }
 
         // 为job指定输入数据的组件和输出数据的组件，以下两个参数是默认的，所以不指定也是OK的
         // job.setInputFormatClass(TextInputFormat.class);
         // job.setOutputFormatClass(TextOutputFormat.class);
+        // 大量小文件时，TextInputFormat每个文件至少一个map task，大部分时间花在启动task上；
+        // CombineTextInputFormat优先把同一节点、再把同一机架上的block合并到一个split
+        long combineMaxSplitSize = conf.getLong(COMBINE_MAX_SPLIT_SIZE, 0);
+        if (combineMaxSplitSize > 0) {
+            job.setInputFormatClass(CombineTextInputFormat.class);
+            CombineTextInputFormat.setMaxInputSplitSize(job, combineMaxSplitSize);
+        }
 
         // 为该mapreduce程序制定默认的数据分区组件。默认是 HashPartitioner.class
         // job.setPartitionerClass(HashPartitioner.class);
 
-        // 如果MapReduce程序在Eclipse中，运行，也可以读取Windows系统本地的文件系统中的数据
-        Path inputPath = new Path(generateHdfsPath("/testDir"));
-        Path outputPath = new Path(generateHdfsPath("/output1"));
-
-        FileSystem fileSystem = FileSystem.get(conf);
-        if (fileSystem.exists(outputPath)) {
-            fileSystem.delete(outputPath, true);
-        }
         // 设置wordcount程序的输入路径
         FileInputFormat.setInputPaths(job, inputPath);
         // 设置wordcount程序的输出路径
         FileOutputFormat.setOutputPath(job, outputPath);
 
-        // job.submit()
-        // 最后提交任务（verbose布尔值 决定要不要将运行进度信息输出给用户
-        boolean waitForeCompletion = job.waitForCompletion(true);
-        System.exit(waitForeCompletion ? 0 : 1);
+        // 默认的HashPartitioner只保证每个part文件内有序；全排序时先对输入抽样，按样本的分位点划分reduce的key范围
+        if (conf.getBoolean(TOTAL_ORDER, false) && job.getNumReduceTasks() > 1) {
+            WordSampler sampler = new WordSampler(conf.getDouble(SAMPLE_FREQUENCY, 0.1), conf.getInt(SAMPLE_MAX_SAMPLES, 100000),
+                    conf.getInt(SAMPLE_MAX_SPLITS, 10), conf.getBoolean(IN_MAPPER_COMBINING, true), conf.getLong(SAMPLE_SEED, outputPath.hashCode()));
+            TotalOrderPartitioner.setPartitionFile(job.getConfiguration(), partitionFile(outputPath));
+            InputSampler.writePartitionFile(job, sampler);
+            job.setPartitionerClass(TotalOrderPartitioner.class);
+        }
+
+        return job;
+    }
+
+    /**
+     * 根据Job的计数器汇总shuffle相关的数据：
+     * map输出的原始字节数与落盘（压缩后）字节数、溢写的记录数与map输出记录数的比值（大于1说明有多次溢写后的合并，
+     * 其中包括reduce端合并溢写的记录）、reduce拉取的字节数
+     *
+     * @param counters Job的计数器
+     * @return java.lang.String
+     */
+    public static String shuffleReport(Counters counters) {
+        long mapOutputRecords = counters.findCounter(TaskCounter.MAP_OUTPUT_RECORDS).getValue();
+        long mapOutputBytes = counters.findCounter(TaskCounter.MAP_OUTPUT_BYTES).getValue();
+        long materializedBytes = counters.findCounter(TaskCounter.MAP_OUTPUT_MATERIALIZED_BYTES).getValue();
+        long spilledRecords = counters.findCounter(TaskCounter.SPILLED_RECORDS).getValue();
+        long shuffleBytes = counters.findCounter(TaskCounter.REDUCE_SHUFFLE_BYTES).getValue();
+        return "mapOutputRecords=" + mapOutputRecords
+                + ", mapOutputBytes=" + mapOutputBytes
+                + ", materializedBytes=" + materializedBytes
+                + String.format(", compressionRatio=%.2f", mapOutputBytes == 0 ? 1.0 : (double) materializedBytes / mapOutputBytes)
+                + ", spilledRecords=" + spilledRecords
+                + String.format(", spillRatio=%.2f", mapOutputRecords == 0 ? 0.0 : (double) spilledRecords / mapOutputRecords)
+                + ", mergedMapOutputs=" + counters.findCounter(TaskCounter.MERGED_MAP_OUTPUTS).getValue()
+                + ", reduceShuffleBytes=" + shuffleBytes;
+    }
+
+    /**
+     * 全排序的分区文件，放在输出目录旁边，Job结束后删除
+     */
+    static Path partitionFile(Path outputPath) {
+        return new Path(outputPath.getParent(), "_" + outputPath.getName() + "_partitions");
     }
 
 
@@ -88,6 +327,35 @@ public class WordCountMR {
      */
     static class WordCountMapper extends Mapper<LongWritable, Text, Text, IntWritable> {
 
+        private final Text word = new Text();
+
+        private final IntWritable count = new IntWritable(1);
+
+        /**
+         * 直接在Text的字节上切分单词，不解码为String
+         */
+        private final WordTokenizer tokenizer = new WordTokenizer();
+
+        /**
+         * 开启in-mapper combining时，单词计数先累加到哈希表，在cleanup或内存达到上限时输出
+         */
+        private BytesIntHashMap counts;
+
+        private long maxBytes;
+
+        private Counter inputWords;
+
+        @Override
+        protected void setup(Context context) {
+            Configuration conf = context.getConfiguration();
+            if (conf.getBoolean(IN_MAPPER_COMBINING, true)) {
+                maxBytes = conf.getLong(IN_MAPPER_MAX_BYTES, 32L * 1024 * 1024);
+                // 每个容量单位分配32字节，初始容量按上限的1/64计算，空表的分配不超过上限，之后按需扩容
+                counts = new BytesIntHashMap((int) Math.min(1 << 16, Math.max(16, maxBytes / 64)));
+            }
+            inputWords = context.getCounter(WordCountCounter.INPUT_WORDS);
+        }
+
         /**
          * LongWritable key : 该key就是value该行文本的在文件当中的起始偏移量
          * Text value ： 就是MapReduce框架默认的数据读取组件TextInputFormat读取文件当中的一行文本
@@ -100,10 +368,42 @@ public class WordCountMR {
          */
         @Override
         protected void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
-            String[] words = value.toString().split(" ");
-            for (String word : words) {
-                context.write(new Text(word), new IntWritable());
+            long words = 0;
+            tokenizer.reset(value.getBytes(), 0, value.getLength());
+            while (tokenizer.next()) {
+                words++;
+                if (counts == null) {
+                    word.set(tokenizer.bytes(), tokenizer.start(), tokenizer.length());
+                    context.write(word, count);
+                    continue;
+                }
+                counts.add(tokenizer.bytes(), tokenizer.start(), tokenizer.length(), 1);
+                if (counts.usedBytes() >= maxBytes) {
+                    flush(context);
+                }
             }
+            inputWords.increment(words);
+        }
+
+        @Override
+        protected void cleanup(Context context) throws IOException, InterruptedException {
+            if (counts != null && counts.size() > 0) {
+                flush(context);
+            }
+        }
+
+        /**
+         * 输出哈希表中聚合的计数并清空
+         */
+        private void flush(Context context) throws IOException, InterruptedException {
+            counts.forEach((bytes, start, length, value) -> {
+                word.set(bytes, start, length);
+                count.set(value);
+                context.write(word, count);
+            });
+            counts.clear();
+            count.set(1);
+            context.getCounter(WordCountCounter.IN_MAPPER_FLUSHES).increment(1);
         }
     }
 
@@ -117,6 +417,8 @@ public class WordCountMR {
      */
     static class WordCountReducer extends Reducer<Text, IntWritable, Text, IntWritable> {
 
+        private final IntWritable result = new IntWritable();
+
         /**
          * Text key : mapTask输出的key值
          * Iterable<IntWritable> values ： key对应的value的集合（该key只是相同的一个key）
@@ -137,27 +439,8 @@ public class WordCountMR {
                 sum += v.get();
             }
             // 汇总结果往外输出
-            context.write(key, new IntWritable(sum));
-        }
-    }
-
-    /**
-     * 将相对路径转化为HDFS文件路径
-     *
-     * @param dstPath 相对路径，比如：/data
-     * @return java.lang.String
-     * @author decre
-     * @since 1.0.0
-     */
-    private  static String generateHdfsPath(String dstPath) {
-        String hdfsPath = "hdfs://192.168.0.125:9000";
-        if (dstPath.startsWith("/")) {
-            hdfsPath += dstPath;
-        } else {
-            hdfsPath = hdfsPath + "/" + dstPath;
+            result.set(sum);
+            context.write(key, result);
         }
-
-        return hdfsPath;
     }
-
 }
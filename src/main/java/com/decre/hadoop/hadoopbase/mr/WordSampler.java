@@ -0,0 +1,106 @@
+package com.decre.hadoop.hadoopbase.mr;
+
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.partition.InputSampler;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 17:00
+ * @since 1.0.0
+ * Descirption: 对输入文本中的单词抽样，用于InputSampler.writePartitionFile生成TotalOrderPartitioner的分区文件
+ * <p>InputSampler自带的Sampler返回的是输入的key（TextInputFormat下是行偏移量），而wordcount的map输出key是单词，
+ * 所以这里读取输入的行，用WordTokenizer切分后对单词做蓄水池抽样。</p>
+ * <p>样本的分布决定分区边界：按单词出现次数抽样时，高频词占用的样本多，所在分区分到的其它单词就少；
+ * 开启in-mapper combining时reduce的输入是每个map的不同单词，这时每个split内相同的单词只抽样一次。</p>
+ */
+public class WordSampler implements InputSampler.Sampler<Text, NullWritable> {
+
+    private final double frequency;
+
+    private final int numSamples;
+
+    private final int maxSplitsSampled;
+
+    private final boolean distinctPerSplit;
+
+    private final Random random;
+
+    /**
+     * @param frequency        每一行被抽样的概率
+     * @param numSamples       最多保留的单词样本数
+     * @param maxSplitsSampled 最多读取的split数量
+     * @param distinctPerSplit 每个split内相同的单词是否只计一次
+     * @param seed             随机种子
+     */
+    public WordSampler(double frequency, int numSamples, int maxSplitsSampled, boolean distinctPerSplit, long seed) {
+        this.frequency = frequency;
+        this.numSamples = numSamples;
+        this.maxSplitsSampled = maxSplitsSampled;
+        this.distinctPerSplit = distinctPerSplit;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * InputSampler.writePartitionFile传入的是Job的InputFormat（读取的key为行偏移量，value为一行文本），
+     * 泛型参数只是为了与map输出的key类型一致
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Text[] getSample(InputFormat<Text, NullWritable> inf, Job job) throws IOException, InterruptedException {
+        InputFormat<?, Text> inputFormat = (InputFormat) inf;
+        List<InputSplit> splits = new ArrayList<>(inputFormat.getSplits(job));
+        Collections.shuffle(splits, random);
+
+        List<Text> samples = new ArrayList<>(numSamples);
+        WordTokenizer tokenizer = new WordTokenizer();
+        Text word = new Text();
+        long seen = 0;
+        for (int i = 0; i < splits.size() && i < maxSplitsSampled; i++) {
+            Set<Text> splitWords = distinctPerSplit ? new HashSet<>() : null;
+            TaskAttemptContext context = new TaskAttemptContextImpl(job.getConfiguration(), new TaskAttemptID());
+            try (RecordReader<?, Text> reader = inputFormat.createRecordReader(splits.get(i), context)) {
+                reader.initialize(splits.get(i), context);
+                while (reader.nextKeyValue()) {
+                    if (random.nextDouble() > frequency) {
+                        continue;
+                    }
+                    Text line = reader.getCurrentValue();
+                    tokenizer.reset(line.getBytes(), 0, line.getLength());
+                    while (tokenizer.next()) {
+                        word.set(tokenizer.bytes(), tokenizer.start(), tokenizer.length());
+                        if (splitWords != null && !splitWords.add(new Text(word))) {
+                            continue;
+                        }
+                        // 蓄水池抽样，每个单词被保留的概率相同
+                        seen++;
+                        if (samples.size() < numSamples) {
+                            samples.add(new Text(word));
+                        } else {
+                            long j = (long) (random.nextDouble() * seen);
+                            if (j < numSamples) {
+                                samples.set((int) j, new Text(word));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return samples.toArray(new Text[0]);
+    }
+}
@@ -0,0 +1,171 @@
+package com.decre.hadoop.hadoopbase.mr;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 14:00
+ * @since 1.0.0
+ * Descirption: 直接扫描UTF-8字节的单词切分器
+ * <p>单词是连续的ASCII字母、数字、下划线以及非ASCII字符（多字节UTF-8字符整体保留），其它ASCII字符
+ * （空白、标点、控制字符）都是分隔符，连续的分隔符不会产生空单词。</p>
+ * <p>非ASCII字符按首字节解码出码点判断：Unicode空白（比如U+00A0、U+3000）、标点（比如全角的，。：）和零宽格式字符是分隔符，
+ * U+2000–U+206F、U+3000–U+303F、U+FF00–U+FF65中除字母、数字以外的字符也是分隔符，所以“你好，世界”切分为两个单词。
+ * 不是合法UTF-8的字节按单词字节处理。</p>
+ * <p>不解码为String、不使用正则，也不创建对象：reset之后反复调用next，通过bytes/start/length读取当前单词，
+ * 一个实例可以在整个map task中复用。</p>
+ * <pre>
+ * tokenizer.reset(value.getBytes(), 0, value.getLength());
+ * while (tokenizer.next()) {
+ *     word.set(tokenizer.bytes(), tokenizer.start(), tokenizer.length());
+ * }
+ * </pre>
+ */
+public final class WordTokenizer {
+
+    private static final boolean[] WORD_BYTES = new boolean[256];
+
+    /**
+     * BMP中作为分隔符的码点，每个码点一位
+     */
+    private static final long[] BMP_SEPARATORS = new long[1 << 10];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            WORD_BYTES[b] = b >= 0x80 || (b >= '0' && b <= '9') || (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || b == '_';
+        }
+        for (int codePoint = 0x80; codePoint <= 0xFFFF; codePoint++) {
+            if (isSeparatorCodePoint(codePoint)) {
+                BMP_SEPARATORS[codePoint >>> 6] |= 1L << codePoint;
+            }
+        }
+    }
+
+    private byte[] bytes;
+
+    private int position;
+
+    private int limit;
+
+    private int tokenStart;
+
+    private int tokenLength;
+
+    /**
+     * 开始切分一段新的字节，比如Text的getBytes()和getLength()
+     *
+     * @param bytes  字节数组
+     * @param start  起始位置
+     * @param length 长度
+     */
+    public void reset(byte[] bytes, int start, int length) {
+        this.bytes = bytes;
+        this.position = start;
+        this.limit = start + length;
+        this.tokenStart = start;
+        this.tokenLength = 0;
+    }
+
+    /**
+     * 移动到下一个单词
+     *
+     * @return boolean 没有更多单词时返回false
+     */
+    public boolean next() {
+        int i = position;
+        int n;
+        while (i < limit && (n = charLength(i)) < 0) {
+            i -= n;
+        }
+        if (i >= limit) {
+            position = limit;
+            tokenLength = 0;
+            return false;
+        }
+        int start = i;
+        while (i < limit && (n = charLength(i)) > 0) {
+            i += n;
+        }
+        tokenStart = start;
+        tokenLength = i - start;
+        position = i;
+        return true;
+    }
+
+    /**
+     * 当前单词所在的数组，即reset传入的数组
+     */
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    public int start() {
+        return tokenStart;
+    }
+
+    public int length() {
+        return tokenLength;
+    }
+
+    /**
+     * 位置i处字符的字节数：单词字符返回正数，分隔符返回负数
+     */
+    private int charLength(int i) {
+        int b = bytes[i] & 0xFF;
+        if (b < 0x80) {
+            return WORD_BYTES[b] ? 1 : -1;
+        }
+        int length;
+        int codePoint;
+        if (b >= 0xC2 && b <= 0xDF) {
+            length = 2;
+            codePoint = b & 0x1F;
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            length = 3;
+            codePoint = b & 0x0F;
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            length = 4;
+            codePoint = b & 0x07;
+        } else {
+            // 后续字节或者非法的首字节
+            return 1;
+        }
+        if (i + length > limit) {
+            return 1;
+        }
+        for (int k = 1; k < length; k++) {
+            int c = bytes[i + k] & 0xFF;
+            if ((c & 0xC0) != 0x80) {
+                return 1;
+            }
+            codePoint = (codePoint << 6) | (c & 0x3F);
+        }
+        boolean separator = codePoint <= 0xFFFF
+                ? (BMP_SEPARATORS[codePoint >>> 6] & (1L << codePoint)) != 0
+                : isSeparatorCodePoint(codePoint);
+        return separator ? -length : length;
+    }
+
+    private static boolean isSeparatorCodePoint(int codePoint) {
+        if (Character.isWhitespace(codePoint) || Character.isSpaceChar(codePoint)) {
+            return true;
+        }
+        switch (Character.getType(codePoint)) {
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+            case Character.FORMAT:
+                return true;
+            case Character.LETTER_NUMBER:
+                return false;
+            default:
+                break;
+        }
+        // 通用标点、CJK符号和标点、全角ASCII标点中的其它符号
+        boolean punctuationBlock = (codePoint >= 0x2000 && codePoint <= 0x206F)
+                || (codePoint >= 0x3000 && codePoint <= 0x303F)
+                || (codePoint >= 0xFF00 && codePoint <= 0xFF65);
+        return punctuationBlock && !Character.isLetterOrDigit(codePoint);
+    }
+}
@@ -0,0 +1,111 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Decre
+ * @date 2026/10/20 0020 09:00
+ * @since 1.0.0
+ * Descirption: 批量操作使用的有界线程池
+ * <p>固定线程数，任务队列有界，队列满时由提交线程自己执行任务，以此限制内存中等待的任务数量。</p>
+ * <p>线程池关闭后提交的任务、以及关闭超时时还在队列中的任务不会执行，而是调用CancellableTask#cancel，
+ * 等待整批任务完成的调用方不会因为任务被丢弃而一直阻塞。</p>
+ */
+public final class BoundedExecutors {
+
+    /**
+     * 关闭时等待正在执行的任务完成的时间
+     */
+    private static final long CLOSE_TIMEOUT_MILLIS = 30000L;
+
+    /**
+     * 等待整批任务完成时检查线程池是否已经终止的间隔
+     */
+    private static final long AWAIT_POLL_MILLIS = 1000L;
+
+    private BoundedExecutors() {
+    }
+
+    /**
+     * 创建有界线程池
+     *
+     * @param threadPrefix 线程名前缀，比如：hdfs-transfer
+     * @param parallelism  线程数
+     * @return java.util.concurrent.ThreadPoolExecutor
+     */
+    public static ThreadPoolExecutor newExecutor(String threadPrefix, int parallelism) {
+        int threads = Math.max(1, parallelism);
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                r -> {
+                    Thread thread = new Thread(r, threadPrefix + "-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (r, executor) -> {
+                    // CallerRunsPolicy在线程池关闭后会直接丢弃任务
+                    if (executor.isShutdown()) {
+                        cancel(r);
+                    } else {
+                        r.run();
+                    }
+                });
+    }
+
+    /**
+     * 关闭线程池：不再接收新任务，等待已提交的任务完成，超时后中断正在执行的任务并取消队列中的任务
+     *
+     * @param executor 线程池
+     */
+    public static void shutdown(ThreadPoolExecutor executor) {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Runnable r : executor.shutdownNow()) {
+            cancel(r);
+        }
+    }
+
+    /**
+     * 等待整批任务完成；线程池终止后不再等待，此时未完成的任务由调用方处理
+     *
+     * @param latch    每个任务完成或取消时countDown
+     * @param executor 执行任务的线程池
+     * @return boolean 全部任务都已完成时返回true
+     */
+    public static boolean await(CountDownLatch latch, ThreadPoolExecutor executor) throws InterruptedException {
+        while (!latch.await(AWAIT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (executor.isTerminated()) {
+                return latch.getCount() == 0;
+            }
+        }
+        return true;
+    }
+
+    private static void cancel(Runnable r) {
+        if (r instanceof CancellableTask) {
+            ((CancellableTask) r).cancel();
+        }
+    }
+
+    /**
+     * 可以取消的任务，任务没有执行时调用cancel，用于记录结果并countDown
+     */
+    public interface CancellableTask extends Runnable {
+
+        /**
+         * 任务不会再执行
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,185 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 10:00
+ * @since 1.0.0
+ * Descirption: 按 用户+URI 管理的FileSystem句柄池
+ * <p>FileSystem本身是线程安全的，池中的句柄由所有调用方共享，调用方不能自行close，统一在容器关闭时由{@link #close()}释放。</p>
+ * <p>每个 用户+URI 最多创建 sizePerKey 个句柄，多个句柄之间轮询分配，用于分散单个DFSClient上的RPC竞争。</p>
+ */
+public class FileSystemPool implements Closeable {
+
+    private Logger logger = LoggerFactory.getLogger(FileSystemPool.class);
+
+    private final Configuration conf;
+
+    /**
+     * 默认的HDFS路径，比如：hdfs://192.168.197.130:9000
+     */
+    private final URI defaultUri;
+
+    /**
+     * 每个 用户+URI 的句柄数量
+     */
+    private final int sizePerKey;
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * 新建句柄次数
+     */
+    private final AtomicLong created = new AtomicLong();
+
+    /**
+     * 复用句柄次数
+     */
+    private final AtomicLong reused = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    public FileSystemPool(Configuration conf, String defaultHdfsUri, int sizePerKey) {
+        this.conf = conf;
+        this.defaultUri = URI.create(defaultHdfsUri);
+        this.sizePerKey = Math.max(1, sizePerKey);
+    }
+
+    /**
+     * 获取默认URI、当前用户的FileSystem
+     *
+     * @return org.apache.hadoop.fs.FileSystem
+     */
+    public FileSystem get() throws IOException {
+        return get(defaultUri, null);
+    }
+
+    /**
+     * 获取指定URI、指定用户的FileSystem
+     *
+     * @param uri  HDFS地址，为null时使用默认地址
+     * @param user 访问HDFS的用户，为null时使用当前用户
+     * @return org.apache.hadoop.fs.FileSystem
+     */
+    public FileSystem get(URI uri, String user) throws IOException {
+        if (closed) {
+            throw new IOException("FileSystemPool已关闭");
+        }
+        URI fsUri = uri == null ? defaultUri : uri;
+        String key = (user == null ? "" : user) + "@" + fsUri;
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot(fsUri, user));
+        return slot.next();
+    }
+
+    /**
+     * 新建句柄次数
+     */
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    /**
+     * 复用句柄次数
+     */
+    public long getReusedCount() {
+        return reused.get();
+    }
+
+    /**
+     * 当前池中句柄数量
+     */
+    public int getOpenCount() {
+        int count = 0;
+        for (Slot slot : slots.values()) {
+            count += slot.size();
+        }
+        return count;
+    }
+
+    /**
+     * 关闭池中所有句柄，由Spring容器关闭时调用
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Slot slot : slots.values()) {
+            slot.close();
+        }
+        slots.clear();
+    }
+
+    /**
+     * 同一个 用户+URI 下的句柄集合
+     */
+    private class Slot {
+
+        private final URI uri;
+        private final String user;
+        private final List<FileSystem> fileSystems = new ArrayList<>();
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        Slot(URI uri, String user) {
+            this.uri = uri;
+            this.user = user;
+        }
+
+        /**
+         * 在锁内读取句柄列表并检查池是否已关闭，避免与close并发时返回已关闭的句柄或者在关闭后新建句柄
+         */
+        synchronized FileSystem next() throws IOException {
+            if (closed) {
+                throw new IOException("FileSystemPool已关闭");
+            }
+            if (fileSystems.size() < sizePerKey) {
+                FileSystem fileSystem = newInstance();
+                fileSystems.add(fileSystem);
+                created.incrementAndGet();
+                return fileSystem;
+            }
+            reused.incrementAndGet();
+            return fileSystems.get(Math.floorMod(cursor.getAndIncrement(), sizePerKey));
+        }
+
+        synchronized int size() {
+            return fileSystems.size();
+        }
+
+        private FileSystem newInstance() throws IOException {
+            // 使用newInstance而不是get，避免和FileSystem的JVM级缓存互相影响
+            if (user == null) {
+                return FileSystem.newInstance(uri, conf);
+            }
+            try {
+                return FileSystem.newInstance(uri, conf, user);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        synchronized void close() {
+            for (FileSystem fileSystem : fileSystems) {
+                try {
+                    fileSystem.close();
+                } catch (IOException e) {
+                    logger.error(e.getMessage());
+                }
+            }
+            fileSystems.clear();
+        }
+    }
+}
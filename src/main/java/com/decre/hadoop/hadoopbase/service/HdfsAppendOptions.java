@@ -0,0 +1,150 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 1:00
+ * @since 1.0.0
+ * Descirption: 追加写入日志时的参数
+ */
+public class HdfsAppendOptions {
+
+    /**
+     * 批量提交时的持久化方式
+     */
+    public enum Durability {
+        /**
+         * hflush：数据写到所有DataNode的内存，新的reader可见，DataNode全部宕机时可能丢失
+         */
+        HFLUSH,
+        /**
+         * hsync：数据落到DataNode的磁盘，开销更大
+         */
+        HSYNC
+    }
+
+    /**
+     * 缓冲的数据达到该字节数时立即提交
+     */
+    private int flushBytes = 1024 * 1024;
+
+    /**
+     * 定时提交的间隔，单位毫秒，记录最多在内存中停留这么久
+     */
+    private long flushIntervalMillis = 200;
+
+    /**
+     * 文件达到该字节数时滚动到新文件
+     */
+    private long rollBytes = 128L * 1024 * 1024;
+
+    /**
+     * 文件打开超过该时长时滚动到新文件，单位毫秒
+     */
+    private long rollIntervalMillis = 60L * 60 * 1000;
+
+    private Durability durability = Durability.HFLUSH;
+
+    /**
+     * 每条记录后追加的分隔符，为null或空时不追加
+     */
+    private byte[] recordDelimiter = "\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 文件名前缀，完整文件名比如：log-20190402-120000-000.log
+     */
+    private String filePrefix = "log";
+
+    private String fileSuffix = ".log";
+
+    /**
+     * 等待租约恢复的最长时间，单位毫秒
+     */
+    private long leaseRecoveryTimeoutMillis = 60 * 1000;
+
+    public static HdfsAppendOptions defaults() {
+        return new HdfsAppendOptions();
+    }
+
+    public int getFlushBytes() {
+        return flushBytes;
+    }
+
+    public HdfsAppendOptions setFlushBytes(int flushBytes) {
+        this.flushBytes = flushBytes;
+        return this;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public HdfsAppendOptions setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+        return this;
+    }
+
+    public long getRollBytes() {
+        return rollBytes;
+    }
+
+    public HdfsAppendOptions setRollBytes(long rollBytes) {
+        this.rollBytes = rollBytes;
+        return this;
+    }
+
+    public long getRollIntervalMillis() {
+        return rollIntervalMillis;
+    }
+
+    public HdfsAppendOptions setRollIntervalMillis(long rollIntervalMillis) {
+        this.rollIntervalMillis = rollIntervalMillis;
+        return this;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public HdfsAppendOptions setDurability(Durability durability) {
+        this.durability = durability;
+        return this;
+    }
+
+    public byte[] getRecordDelimiter() {
+        return recordDelimiter;
+    }
+
+    public HdfsAppendOptions setRecordDelimiter(byte[] recordDelimiter) {
+        this.recordDelimiter = recordDelimiter;
+        return this;
+    }
+
+    public String getFilePrefix() {
+        return filePrefix;
+    }
+
+    public HdfsAppendOptions setFilePrefix(String filePrefix) {
+        this.filePrefix = filePrefix;
+        return this;
+    }
+
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+
+    public HdfsAppendOptions setFileSuffix(String fileSuffix) {
+        this.fileSuffix = fileSuffix;
+        return this;
+    }
+
+    public long getLeaseRecoveryTimeoutMillis() {
+        return leaseRecoveryTimeoutMillis;
+    }
+
+    public HdfsAppendOptions setLeaseRecoveryTimeoutMillis(long leaseRecoveryTimeoutMillis) {
+        this.leaseRecoveryTimeoutMillis = leaseRecoveryTimeoutMillis;
+        return this;
+    }
+}
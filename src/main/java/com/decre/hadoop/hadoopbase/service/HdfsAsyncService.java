@@ -0,0 +1,247 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import com.alibaba.fastjson.JSON;
+import com.decre.hadoop.hadoopbase.entity.HdfsFileInfo;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.PathFilter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 21:00
+ * @since 1.0.0
+ * Descirption: HdfsService的异步版本
+ * <p>所有操作在有界的IO线程池中执行，返回CompletableFuture；失败时future以原始异常（IOException等）结束，不会吞掉异常。
+ * 线程池队列满时直接以RejectedExecutionException结束，调用方可以据此限流。</p>
+ * <p>操作委托给HdfsService，与同步调用一样使用元数据缓存、记录指标并按重试策略重试。</p>
+ */
+public class HdfsAsyncService implements Closeable {
+
+    private final HdfsService hdfsService;
+
+    private final ThreadPoolExecutor executor;
+
+    public HdfsAsyncService(HdfsService hdfsService, int threads, int queueCapacity) {
+        this.hdfsService = hdfsService;
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread thread = new Thread(r, "hdfs-async-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 创建HDFS目录
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir
+     * @return CompletableFuture 是否创建成功
+     */
+    public CompletableFuture<Boolean> mkdir(String path) {
+        return submit(() -> hdfsService.mkdirChecked(path));
+    }
+
+    /**
+     * 判断文件或者目录是否在HDFS上面存在
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir、/testDir/a.txt
+     * @return CompletableFuture
+     */
+    public CompletableFuture<Boolean> checkExists(String path) {
+        return submit(() -> hdfsService.existsChecked(path));
+    }
+
+    /**
+     * 获取HDFS上面的某个路径下面的所有文件或目录（不包含子目录）信息，路径不存在时以FileNotFoundException结束
+     *
+     * @param path       HDFS的相对目录路径，比如：/testDir
+     * @param pathFilter 过滤器，可以为null
+     * @return CompletableFuture
+     */
+    public CompletableFuture<List<HdfsFileInfo>> listFiles(String path, PathFilter pathFilter) {
+        return submit(() -> {
+            FileStatus[] statuses = hdfsService.listStatusChecked(path, pathFilter);
+            List<HdfsFileInfo> result = new ArrayList<>(statuses.length);
+            for (FileStatus status : statuses) {
+                result.add(HdfsFileInfo.of(status));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 打开HDFS上面的文件并返回 InputStream，使用完之后需要close
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir/c.txt
+     * @return CompletableFuture
+     */
+    public CompletableFuture<FSDataInputStream> open(String path) {
+        return submit(() -> hdfsService.openChecked(path));
+    }
+
+    /**
+     * 打开HDFS上面的文件并返回byte数组
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir/b.txt
+     * @return CompletableFuture
+     */
+    public CompletableFuture<byte[]> openWithBytes(String path) {
+        return submit(() -> {
+            try (FSDataInputStream inputStream = hdfsService.openChecked(path)) {
+                return IOUtils.toByteArray(inputStream);
+            }
+        });
+    }
+
+    /**
+     * 打开HDFS上面的文件并返回String字符串
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir/b.txt
+     * @return CompletableFuture
+     */
+    public CompletableFuture<String> openWithString(String path) {
+        return submit(() -> {
+            try (FSDataInputStream inputStream = hdfsService.openChecked(path)) {
+                return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+            }
+        });
+    }
+
+    /**
+     * 打开HDFS上面的文件并转换为Java对象（需要HDFS上门的文件内容为JSON字符串）
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir/c.txt
+     * @return CompletableFuture
+     */
+    public <T> CompletableFuture<T> openWithObject(String path, Class<T> clazz) {
+        return openWithString(path).thenApply(jsonStr -> JSON.parseObject(jsonStr, clazz));
+    }
+
+    /**
+     * 重命名
+     *
+     * @param srcFile 重命名之前的HDFS的相对目录路径，比如：/testDir/b.txt
+     * @param dstFile 重命名之后的HDFS的相对目录路径，比如：/testDir/b_new.txt
+     * @return CompletableFuture rename的返回值
+     */
+    public CompletableFuture<Boolean> rename(String srcFile, String dstFile) {
+        return submit(() -> hdfsService.renameChecked(srcFile, dstFile));
+    }
+
+    /**
+     * 删除HDFS文件或目录（递归删除）
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir/c.txt
+     * @return CompletableFuture delete的返回值
+     */
+    public CompletableFuture<Boolean> delete(String path) {
+        return submit(() -> hdfsService.deleteChecked(path));
+    }
+
+    /**
+     * 上传文件至HDFS
+     *
+     * @param delSrc    是否删除本地文件
+     * @param overwrite 是否覆盖HDFS上面的文件
+     * @param srcFile   本地文件路径，比如：D:/test.txt
+     * @param dstPath   HDFS的相对目录路径，比如：/testDir
+     * @return CompletableFuture
+     */
+    public CompletableFuture<Void> uploadFileToHdfs(boolean delSrc, boolean overwrite, String srcFile, String dstPath) {
+        return submit(() -> {
+            hdfsService.uploadChecked(delSrc, overwrite, srcFile, dstPath);
+            return null;
+        });
+    }
+
+    /**
+     * 从HDFS下载文件至本地
+     *
+     * @param srcFile HDFS的相对目录路径，比如：/testDir/a.txt
+     * @param dstFile 下载之后本地文件路径（如果本地文件目录不存在，则会自动创建），比如：D:/test.txt
+     * @return CompletableFuture
+     */
+    public CompletableFuture<Void> downloadFileFromHdfs(String srcFile, String dstFile) {
+        return submit(() -> {
+            hdfsService.downloadChecked(srcFile, dstFile);
+            return null;
+        });
+    }
+
+    /**
+     * 关闭线程池，由Spring容器关闭时调用；正在执行的操作被中断，队列中还没有执行的操作以RejectedExecutionException结束
+     */
+    @Override
+    public void close() {
+        for (Runnable r : executor.shutdownNow()) {
+            if (r instanceof AsyncTask) {
+                ((AsyncTask<?>) r).cancel();
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(IoCallable<T> callable) {
+        AsyncTask<T> task = new AsyncTask<>(callable);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.future.completeExceptionally(e);
+        }
+        return task.future;
+    }
+
+    /**
+     * 线程池中执行的任务，持有对应的future，关闭时没有执行的任务通过cancel结束future
+     */
+    private static class AsyncTask<T> implements Runnable {
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private final IoCallable<T> callable;
+
+        private AsyncTask(IoCallable<T> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(callable.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void cancel() {
+            future.completeExceptionally(new RejectedExecutionException("HdfsAsyncService已关闭，操作未执行"));
+        }
+    }
+
+    /**
+     * 可以抛出IOException的任务
+     */
+    @FunctionalInterface
+    private interface IoCallable<T> {
+        T call() throws IOException;
+    }
+}
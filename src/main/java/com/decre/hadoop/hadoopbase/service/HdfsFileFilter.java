@@ -0,0 +1,138 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.GlobPattern;
+import org.apache.hadoop.fs.Path;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.regex.Pattern;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 2:00
+ * @since 1.0.0
+ * Descirption: 基于FileStatus的可组合过滤器
+ * <p>在{@link HdfsService#findFiles(String, HdfsFileFilter, HdfsFileFilter, boolean)}中既可以过滤文件，
+ * 也可以作为目录过滤器，在列出目录之前剪掉整棵子树。</p>
+ */
+@FunctionalInterface
+public interface HdfsFileFilter {
+
+    boolean accept(FileStatus status);
+
+    default HdfsFileFilter and(HdfsFileFilter other) {
+        return status -> accept(status) && other.accept(status);
+    }
+
+    default HdfsFileFilter or(HdfsFileFilter other) {
+        return status -> accept(status) || other.accept(status);
+    }
+
+    default HdfsFileFilter negate() {
+        return status -> !accept(status);
+    }
+
+    /**
+     * 接受所有文件
+     */
+    static HdfsFileFilter all() {
+        return status -> true;
+    }
+
+    /**
+     * 文件大小在[minBytes, maxBytes]之间
+     */
+    static HdfsFileFilter sizeBetween(long minBytes, long maxBytes) {
+        return status -> status.getLen() >= minBytes && status.getLen() <= maxBytes;
+    }
+
+    /**
+     * 修改时间在[fromMillis, toMillis)之间
+     */
+    static HdfsFileFilter modifiedBetween(long fromMillis, long toMillis) {
+        return status -> status.getModificationTime() >= fromMillis && status.getModificationTime() < toMillis;
+    }
+
+    /**
+     * 文件名（不含目录）匹配正则表达式
+     */
+    static HdfsFileFilter nameMatches(String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        return status -> pattern.matcher(status.getPath().getName()).matches();
+    }
+
+    /**
+     * 文件名（不含目录）匹配glob，比如：*.log、part-*
+     */
+    static HdfsFileFilter nameGlob(String glob) {
+        GlobPattern pattern = new GlobPattern(glob);
+        return status -> pattern.matches(status.getPath().getName());
+    }
+
+    /**
+     * 按时间分区的目录过滤器，比如 /logs/2019/04/02/13 对应 root=/logs、pattern=yyyy/MM/dd/HH
+     * <p>只有分区时间范围与[fromMillis, toMillis)有交集的目录才会被遍历；/logs/2019/03 这样不完整的分区按整个月份判断。
+     * 不在root下、层数超过pattern或者无法解析的目录不剪枝。</p>
+     *
+     * @param root       分区根目录的HDFS相对路径，比如：/logs
+     * @param pattern    分区格式，每一层目录对应一个SimpleDateFormat格式，比如：yyyy/MM/dd/HH
+     * @param fromMillis 起始时间（包含）
+     * @param toMillis   结束时间（不包含）
+     * @return HdfsFileFilter
+     */
+    static HdfsFileFilter partitionTime(String root, String pattern, long fromMillis, long toMillis) {
+        String rootPath = new Path(root).toUri().getPath();
+        String prefix = rootPath.endsWith("/") ? rootPath : rootPath + "/";
+        String[] levels = pattern.split("/");
+        return status -> {
+            String path = status.getPath().toUri().getPath();
+            if (!path.startsWith(prefix)) {
+                return true;
+            }
+            String[] segments = path.substring(prefix.length()).split("/");
+            if (segments.length > levels.length) {
+                return true;
+            }
+            StringBuilder format = new StringBuilder();
+            StringBuilder value = new StringBuilder();
+            for (int i = 0; i < segments.length; i++) {
+                if (i > 0) {
+                    format.append('/');
+                    value.append('/');
+                }
+                format.append(levels[i]);
+                value.append(segments[i]);
+            }
+            SimpleDateFormat dateFormat = new SimpleDateFormat(format.toString());
+            dateFormat.setLenient(false);
+            Calendar calendar = Calendar.getInstance();
+            try {
+                calendar.setTime(dateFormat.parse(value.toString()));
+            } catch (ParseException e) {
+                return true;
+            }
+            long start = calendar.getTimeInMillis();
+            calendar.add(calendarField(levels[segments.length - 1]), 1);
+            long end = calendar.getTimeInMillis();
+            return start < toMillis && end > fromMillis;
+        };
+    }
+
+    /**
+     * 分区格式中最小的时间单位
+     */
+    static int calendarField(String level) {
+        if (level.contains("m")) {
+            return Calendar.MINUTE;
+        } else if (level.contains("H")) {
+            return Calendar.HOUR_OF_DAY;
+        } else if (level.contains("d")) {
+            return Calendar.DAY_OF_MONTH;
+        } else if (level.contains("M")) {
+            return Calendar.MONTH;
+        }
+        return Calendar.YEAR;
+    }
+}
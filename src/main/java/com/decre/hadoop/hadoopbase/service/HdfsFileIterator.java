@@ -0,0 +1,128 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import com.decre.hadoop.hadoopbase.entity.HdfsFileInfo;
+import com.decre.hadoop.hadoopbase.service.metrics.HdfsMetrics;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.fs.RemoteIterator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 15:00
+ * @since 1.0.0
+ * Descirption: 惰性遍历HDFS目录（可递归）
+ * <p>基于listStatusIterator分页拉取，深度优先遍历，内存中只保留每一层目录当前的分页，不会一次性加载整棵目录树。</p>
+ * <p>子目录先经过dirFilter，被拒绝的目录不会被列出；子目录在遍历到它时才打开，不会在看到目录记录时就发起listStatus。</p>
+ * <p>每打开一层目录（拉取第一页）记录一次listStatus操作。</p>
+ */
+public class HdfsFileIterator implements RemoteIterator<HdfsFileInfo> {
+
+    private final FileSystem fileSystem;
+
+    private final boolean recursive;
+
+    private final PathFilter pathFilter;
+
+    private final PathFilter dirFilter;
+
+    private final HdfsMetrics metrics;
+
+    /**
+     * 每一层目录，分页迭代器在遍历到该目录时才打开
+     */
+    private final Deque<Directory> stack = new ArrayDeque<>();
+
+    private HdfsFileInfo next;
+
+    /**
+     * @param fileSystem FileSystem
+     * @param root       起始目录
+     * @param recursive  是否遍历子目录
+     * @param pathFilter 过滤器，只影响返回的记录，不影响子目录的遍历；可以为null
+     */
+    public HdfsFileIterator(FileSystem fileSystem, Path root, boolean recursive, PathFilter pathFilter) throws IOException {
+        this(fileSystem, root, recursive, pathFilter, null, HdfsMetrics.NOOP);
+    }
+
+    /**
+     * @param fileSystem FileSystem
+     * @param root       起始目录
+     * @param recursive  是否遍历子目录
+     * @param pathFilter 过滤器，只影响返回的记录，不影响子目录的遍历；可以为null
+     * @param dirFilter  子目录过滤器，被拒绝的子目录不会被遍历（目录本身是否返回仍由pathFilter决定）；可以为null
+     * @param metrics    记录listStatus操作的HdfsMetrics
+     */
+    public HdfsFileIterator(FileSystem fileSystem, Path root, boolean recursive, PathFilter pathFilter, PathFilter dirFilter, HdfsMetrics metrics) throws IOException {
+        this.fileSystem = fileSystem;
+        this.recursive = recursive;
+        this.pathFilter = pathFilter;
+        this.dirFilter = dirFilter;
+        this.metrics = metrics;
+        // 起始目录立即打开，不存在时在构造时抛出FileNotFoundException
+        Directory directory = new Directory(root);
+        directory.iterator = listStatusIterator(root);
+        this.stack.push(directory);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        while (next == null && !stack.isEmpty()) {
+            Directory current = stack.peek();
+            if (current.iterator == null) {
+                current.iterator = listStatusIterator(current.path);
+            }
+            if (!current.iterator.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            FileStatus status = current.iterator.next();
+            if (recursive && status.isDirectory() && (dirFilter == null || dirFilter.accept(status.getPath()))) {
+                stack.push(new Directory(status.getPath()));
+            }
+            if (pathFilter == null || pathFilter.accept(status.getPath())) {
+                next = HdfsFileInfo.of(status);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public HdfsFileInfo next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        HdfsFileInfo result = next;
+        next = null;
+        return result;
+    }
+
+    private RemoteIterator<FileStatus> listStatusIterator(Path dir) throws IOException {
+        HdfsMetrics.Timer timer = metrics.start("listStatus");
+        try {
+            return fileSystem.listStatusIterator(dir);
+        } catch (IOException | RuntimeException e) {
+            timer.fail();
+            throw e;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private static class Directory {
+
+        private final Path path;
+
+        private RemoteIterator<FileStatus> iterator;
+
+        private Directory(Path path) {
+            this.path = path;
+        }
+    }
+}
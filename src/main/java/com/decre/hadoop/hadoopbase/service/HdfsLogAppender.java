@@ -0,0 +1,495 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import com.decre.hadoop.hadoopbase.service.metrics.HdfsMetrics;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 1:00
+ * @since 1.0.0
+ * Descirption: 日志类数据的追加写入，批量提交（group commit）
+ * <p>每个目标目录保持一个打开的输出流，记录先写入内存缓冲区，缓冲达到flushBytes或者每隔flushIntervalMillis，
+ * 把一批记录写入HDFS并只调用一次hflush/hsync，这一批记录的future随之完成。调用方不关心持久化时可以忽略返回的future，
+ * 需要确认持久化时join即可，多个线程的记录共享同一次hsync。</p>
+ * <p>正在写的文件以.inprogress结尾，滚动时重命名为正式文件名，读取方只处理正式文件即可。进程崩溃后遗留的.inprogress文件
+ * 在该目录第一次写入前通过recoverLease恢复租约并重命名。因此同一个目录只能由一个HdfsLogAppender写入。</p>
+ * <p>一批记录写到一半失败时，这一批的future都以异常结束，部分写入DataNode的字节在恢复租约后truncate回上一批提交时的长度，
+ * 重试失败的记录不会在正式文件中重复。</p>
+ */
+public class HdfsLogAppender implements Closeable {
+
+    static final String IN_PROGRESS_SUFFIX = ".inprogress";
+
+    private Logger logger = LoggerFactory.getLogger(HdfsLogAppender.class);
+
+    private final HdfsService hdfsService;
+
+    private final HdfsAppendOptions options;
+
+    private final Map<String, LogStream> streams = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * append持有读锁检查closed并写入缓冲区，close持有写锁设置closed，
+     * 保证close之后不会再有记录写入已经提交过的流
+     */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private boolean closed;
+
+    public HdfsLogAppender(HdfsService hdfsService, HdfsAppendOptions options) {
+        this.hdfsService = hdfsService;
+        this.options = options;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hdfs-append-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, options.getFlushIntervalMillis());
+        scheduler.scheduleWithFixedDelay(this::flushAllQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @param path   HDFS的相对目录路径，比如：/logs/events
+     * @param record 记录内容，方法返回后可以复用
+     * @return CompletableFuture 记录所在的批次hflush/hsync之后完成，写入失败时以IOException结束，
+     * 失败的记录会从文件中截断；进程崩溃或者文件系统不支持truncate时，失败的记录可能仍然留在文件中（至少一次）
+     */
+    public CompletableFuture<Void> append(String path, byte[] record) {
+        return append(path, record, 0, record.length);
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @param path   HDFS的相对目录路径，比如：/logs/events
+     * @param record 记录内容，方法返回后可以复用
+     * @param offset 起始位置
+     * @param length 长度
+     * @return CompletableFuture 记录所在的批次hflush/hsync之后完成，写入失败时以IOException结束，
+     * 失败的记录会从文件中截断；进程崩溃或者文件系统不支持truncate时，失败的记录可能仍然留在文件中（至少一次）
+     */
+    public CompletableFuture<Void> append(String path, byte[] record, int offset, int length) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                future.completeExceptionally(new IOException("HdfsLogAppender已关闭"));
+                return future;
+            }
+            LogStream stream = streams.computeIfAbsent(path, LogStream::new);
+            return stream.append(record, offset, length);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 追加一条UTF-8编码的记录
+     *
+     * @param path   HDFS的相对目录路径，比如：/logs/events
+     * @param record 记录内容
+     * @return CompletableFuture
+     */
+    public CompletableFuture<Void> append(String path, String record) {
+        return append(path, record.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 立即提交某个目录缓冲的记录
+     *
+     * @param path HDFS的相对目录路径，比如：/logs/events
+     */
+    public void flush(String path) throws IOException {
+        LogStream stream = streams.get(path);
+        if (stream != null) {
+            stream.flush(false);
+        }
+    }
+
+    /**
+     * 恢复目录下遗留的.inprogress文件的租约并重命名为正式文件，空文件直接删除；
+     * 本Appender写入失败而放弃的文件先truncate回最后一次成功提交时的长度
+     *
+     * @param path HDFS的相对目录路径，比如：/logs/events
+     * @return int 恢复的文件数量
+     */
+    public int recoverLeases(String path) throws IOException {
+        FileSystem fileSystem = hdfsService.getFileSystem();
+        Path dir = new Path(hdfsService.generateHdfsPath(path));
+        FileStatus[] statuses;
+        try {
+            statuses = fileSystem.listStatus(dir, p -> p.getName().endsWith(IN_PROGRESS_SUFFIX));
+        } catch (FileNotFoundException e) {
+            return 0;
+        }
+        int recovered = 0;
+        for (FileStatus status : statuses) {
+            Path file = status.getPath();
+            // 本Appender当前正在写的文件不处理
+            LogStream stream = streams.get(path);
+            if (stream != null && file.equals(stream.currentFile)) {
+                continue;
+            }
+            waitForLeaseRecovery(fileSystem, file);
+            long length = fileSystem.getFileStatus(file).getLen();
+            Long committed = stream == null ? null : stream.committedLengths.get(file);
+            if (committed != null && length > committed) {
+                length = truncate(fileSystem, file, length, committed);
+            }
+            boolean done;
+            if (length == 0) {
+                done = fileSystem.delete(file, false);
+            } else {
+                done = fileSystem.rename(file, finalPath(file));
+            }
+            if (!done) {
+                // 目标文件已存在或者文件已被其它进程处理，保留原文件，不影响后续写入
+                logger.error("恢复遗留的日志文件失败，rename/delete返回false，path:{}", file);
+                continue;
+            }
+            if (stream != null) {
+                stream.committedLengths.remove(file);
+            }
+            recovered++;
+            logger.info("恢复遗留的日志文件，path:{}", file);
+        }
+        hdfsService.invalidateMetadata(path);
+        return recovered;
+    }
+
+    /**
+     * 提交所有缓冲的记录，关闭所有文件并重命名为正式文件，由Spring容器关闭时调用
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        scheduler.shutdown();
+        for (LogStream stream : streams.values()) {
+            try {
+                stream.flush(true);
+            } catch (IOException e) {
+                logger.error("关闭日志文件失败，path:" + stream.path, e);
+            }
+        }
+        streams.clear();
+    }
+
+    private void flushAllQuietly() {
+        for (LogStream stream : streams.values()) {
+            try {
+                stream.flush(false);
+            } catch (IOException e) {
+                logger.error("定时提交日志失败，path:" + stream.path, e);
+            } catch (RuntimeException e) {
+                logger.error("定时提交日志异常，path:" + stream.path, e);
+            }
+        }
+    }
+
+    /**
+     * 等待NameNode关闭文件，recoverLease返回false时表示恢复还在进行中
+     */
+    private void waitForLeaseRecovery(FileSystem fileSystem, Path file) throws IOException {
+        if (!(fileSystem instanceof DistributedFileSystem)) {
+            return;
+        }
+        DistributedFileSystem dfs = (DistributedFileSystem) fileSystem;
+        long deadline = System.currentTimeMillis() + options.getLeaseRecoveryTimeoutMillis();
+        while (!dfs.recoverLease(file)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("等待租约恢复超时，path:" + file);
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待租约恢复时被中断，path:" + file);
+            }
+        }
+    }
+
+    /**
+     * 截断写入失败的那一批记录；文件系统不支持truncate时保留这些字节，只记录日志
+     *
+     * @return long 截断后的文件长度
+     */
+    private long truncate(FileSystem fileSystem, Path file, long length, long committed) throws IOException {
+        boolean done;
+        try {
+            done = fileSystem.truncate(file, committed);
+        } catch (UnsupportedOperationException | IOException e) {
+            logger.error("截断写入失败的日志记录失败，这些记录会保留在文件中，path:{}，length:{}，committed:{}", file, length, committed, e);
+            return length;
+        }
+        if (!done) {
+            // 需要恢复最后一个block，truncate在NameNode关闭文件后才完成
+            waitForFileClosed(fileSystem, file);
+        }
+        logger.warn("截断写入失败的日志记录，path:{}，length:{} -> {}", file, length, committed);
+        return committed;
+    }
+
+    private void waitForFileClosed(FileSystem fileSystem, Path file) throws IOException {
+        if (!(fileSystem instanceof DistributedFileSystem)) {
+            return;
+        }
+        DistributedFileSystem dfs = (DistributedFileSystem) fileSystem;
+        long deadline = System.currentTimeMillis() + options.getLeaseRecoveryTimeoutMillis();
+        while (!dfs.isFileClosed(file)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("等待truncate完成超时，path:" + file);
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待truncate完成时被中断，path:" + file);
+            }
+        }
+    }
+
+    private static Path finalPath(Path inProgress) {
+        String name = inProgress.getName();
+        return new Path(inProgress.getParent(), name.substring(0, name.length() - IN_PROGRESS_SUFFIX.length()));
+    }
+
+    /**
+     * 一个目标目录的写入状态
+     * <p>appendLock只保护内存缓冲区，flushLock保护输出流；提交时在appendLock内交换两个缓冲区，
+     * 写HDFS和hsync期间其它线程仍然可以继续追加到另一个缓冲区。</p>
+     */
+    private class LogStream {
+
+        private final String path;
+
+        private final Object appendLock = new Object();
+
+        private final ReentrantLock flushLock = new ReentrantLock();
+
+        private DataOutputBuffer active = new DataOutputBuffer();
+
+        private DataOutputBuffer flushing = new DataOutputBuffer();
+
+        private List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        private FSDataOutputStream out;
+
+        private Path currentFile;
+
+        /**
+         * 当前文件中已经成功提交的字节数
+         */
+        private long fileBytes;
+
+        /**
+         * 写入失败而放弃的文件 -> 放弃时已经成功提交的字节数，recoverLeases时截断到该长度
+         */
+        private final Map<Path, Long> committedLengths = new ConcurrentHashMap<>();
+
+        private long openedAt;
+
+        private boolean recovered;
+
+        private LogStream(String path) {
+            this.path = path;
+        }
+
+        CompletableFuture<Void> append(byte[] record, int offset, int length) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            int buffered;
+            synchronized (appendLock) {
+                try {
+                    active.write(record, offset, length);
+                    byte[] delimiter = options.getRecordDelimiter();
+                    if (delimiter != null && delimiter.length > 0) {
+                        active.write(delimiter);
+                    }
+                } catch (IOException e) {
+                    // DataOutputBuffer写内存不会失败
+                    throw new IllegalStateException(e);
+                }
+                pending.add(future);
+                buffered = active.getLength();
+            }
+            if (buffered >= options.getFlushBytes()) {
+                try {
+                    flush(false);
+                } catch (IOException e) {
+                    // 失败已经通过future通知
+                    logger.debug("提交日志失败，path:{}", path, e);
+                }
+            }
+            return future;
+        }
+
+        /**
+         * 提交缓冲区中的记录，并按大小、时间判断是否需要滚动
+         *
+         * @param closeFile 是否在提交后关闭文件
+         */
+        void flush(boolean closeFile) throws IOException {
+            List<CompletableFuture<Void>> batch;
+            IOException failure = null;
+            boolean committed = false;
+            flushLock.lock();
+            try {
+                synchronized (appendLock) {
+                    DataOutputBuffer swap = active;
+                    active = flushing;
+                    flushing = swap;
+                    batch = pending;
+                    pending = new ArrayList<>();
+                }
+                try {
+                    if (flushing.getLength() > 0) {
+                        writeBatch();
+                    }
+                    committed = true;
+                    if (out != null && (closeFile || shouldRoll())) {
+                        finishFile();
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                    abortFile();
+                } finally {
+                    flushing.reset();
+                }
+            } finally {
+                flushLock.unlock();
+            }
+
+            // 在锁外完成future，避免回调阻塞后续提交；这一批已经hflush/hsync，只是关闭文件失败时记录仍然算提交成功
+            for (CompletableFuture<Void> future : batch) {
+                if (committed) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(failure);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private void writeBatch() throws IOException {
+            HdfsMetrics metrics = hdfsService.getMetrics();
+            HdfsMetrics.Timer timer = metrics.start("appendCommit");
+            try {
+                if (out == null) {
+                    openFile();
+                }
+                out.write(flushing.getData(), 0, flushing.getLength());
+                if (options.getDurability() == HdfsAppendOptions.Durability.HSYNC) {
+                    out.hsync();
+                } else {
+                    out.hflush();
+                }
+                fileBytes += flushing.getLength();
+                metrics.addBytesWritten(flushing.getLength());
+            } catch (IOException e) {
+                timer.fail();
+                throw e;
+            } finally {
+                timer.stop();
+            }
+        }
+
+        private boolean shouldRoll() {
+            return fileBytes >= options.getRollBytes()
+                    || System.currentTimeMillis() - openedAt >= options.getRollIntervalMillis();
+        }
+
+        private void openFile() throws IOException {
+            if (!recovered) {
+                recoverLeases(path);
+                recovered = true;
+            }
+            FileSystem fileSystem = hdfsService.getFileSystem();
+            Path dir = new Path(hdfsService.generateHdfsPath(path));
+            String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+            Path file = new Path(dir, options.getFilePrefix() + "-" + timestamp + options.getFileSuffix() + IN_PROGRESS_SUFFIX);
+            out = fileSystem.create(file, false);
+            currentFile = file;
+            hdfsService.getMetrics().streamOpened();
+            openedAt = System.currentTimeMillis();
+            fileBytes = 0;
+            hdfsService.invalidateMetadata(path);
+        }
+
+        /**
+         * 关闭当前文件并重命名为正式文件
+         */
+        private void finishFile() throws IOException {
+            Path file = currentFile;
+            // 关闭失败时由abortFile记录已提交的长度
+            out.close();
+            out = null;
+            currentFile = null;
+            hdfsService.getMetrics().streamClosed();
+            boolean renamed = hdfsService.getFileSystem().rename(file, finalPath(file));
+            hdfsService.invalidateMetadata(path);
+            if (!renamed) {
+                // 数据已经提交，不让这一批记录失败；文件保留.inprogress后缀，下次打开文件前由recoverLeases重命名
+                recovered = false;
+                logger.error("日志文件重命名失败，保留为{}，等待下次recoverLeases处理", file);
+                return;
+            }
+            logger.info("日志文件滚动完成，path:{}，bytes:{}", finalPath(file), fileBytes);
+        }
+
+        /**
+         * 写入失败时放弃当前文件，下一批记录写到新文件；遗留的文件在下次recoverLeases时截断到已提交的长度并重命名
+         */
+        private void abortFile() {
+            if (currentFile != null) {
+                committedLengths.put(currentFile, fileBytes);
+            }
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    logger.warn("关闭写入失败的日志文件出错，path:{}，error:{}", currentFile, e.toString());
+                }
+                hdfsService.getMetrics().streamClosed();
+            }
+            out = null;
+            currentFile = null;
+            recovered = false;
+        }
+    }
+}
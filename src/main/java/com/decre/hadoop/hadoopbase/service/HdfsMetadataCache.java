@@ -0,0 +1,310 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 16:00
+ * @since 1.0.0
+ * Descirption: HDFS元数据缓存（是否存在、FileStatus、目录列表）
+ * <p>按LRU淘汰，超过ttl的记录视为失效；通过HdfsService执行的mkdir、delete、rename、上传会自动失效相关路径，
+ * 其它客户端对HDFS的修改只能等ttl过期后才能看到。</p>
+ * <p>查询NameNode不持有锁，所以写入缓存前要确认期间没有失效：查询前调用generation()，put时传入，
+ * 查询之后该路径、它的上级目录（失效子树时）被失效过，这次put会被忽略。</p>
+ */
+public class HdfsMetadataCache {
+
+    /**
+     * 缓存有效期，单位毫秒
+     */
+    private final long ttlMillis;
+
+    /**
+     * 最多缓存的路径数量
+     */
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * 已缓存路径的有序索引，失效子树时按前缀取子路径，不用遍历所有缓存
+     */
+    private final TreeSet<String> keys = new TreeSet<>();
+
+    /**
+     * 路径最近一次被失效时的generation，按失效的先后顺序淘汰，最多保留maxEntries个
+     */
+    private final LinkedHashMap<String, Version> versions;
+
+    /**
+     * 每次失效加一
+     */
+    private long generation;
+
+    /**
+     * 已经淘汰的失效记录中最大的generation，早于它开始的查询结果不再写入缓存
+     */
+    private long versionFloor;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public HdfsMetadataCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > HdfsMetadataCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    keys.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.versions = new LinkedHashMap<String, Version>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Version> eldest) {
+                if (size() > HdfsMetadataCache.this.maxEntries) {
+                    versionFloor = Math.max(versionFloor, eldest.getValue().self);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 当前的失效代数，查询NameNode之前获取，查询结果写入缓存时传给put方法
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * 查询路径是否存在，未缓存时返回null
+     */
+    public synchronized Boolean getExists(Path path) {
+        Entry entry = lookup(path, e -> e.exists != null);
+        return entry == null ? null : entry.exists;
+    }
+
+    public synchronized void putExists(Path path, boolean exists, long generation) {
+        Entry entry = entryForUpdate(path, generation);
+        if (entry == null) {
+            return;
+        }
+        entry.exists = exists;
+        if (!exists) {
+            entry.status = null;
+            entry.listing = null;
+        }
+    }
+
+    /**
+     * 查询FileStatus，未缓存时返回null
+     */
+    public synchronized FileStatus getStatus(Path path) {
+        Entry entry = lookup(path, e -> e.status != null);
+        return entry == null ? null : entry.status;
+    }
+
+    public synchronized void putStatus(Path path, FileStatus status, long generation) {
+        Entry entry = entryForUpdate(path, generation);
+        if (entry == null) {
+            return;
+        }
+        entry.status = status;
+        entry.exists = Boolean.TRUE;
+    }
+
+    /**
+     * 查询目录列表（不带过滤器），未缓存时返回null
+     */
+    public synchronized FileStatus[] getListing(Path path) {
+        Entry entry = lookup(path, e -> e.listing != null);
+        return entry == null ? null : entry.listing;
+    }
+
+    public synchronized void putListing(Path path, FileStatus[] listing, long generation) {
+        Entry entry = entryForUpdate(path, generation);
+        if (entry == null) {
+            return;
+        }
+        entry.listing = listing;
+        entry.exists = Boolean.TRUE;
+    }
+
+    /**
+     * 失效某个路径：包括该路径本身、所有子路径以及所有上级目录
+     * <p>上级目录的列表会因为子路径的增删而变化，mkdirs也可能创建上级目录，所以一并失效</p>
+     */
+    public synchronized void invalidate(Path path) {
+        invalidations.incrementAndGet();
+        generation++;
+        String key = key(path);
+        remove(key);
+        markInvalidated(key, true);
+        // 子路径的key都以key + "/"开头，'0'是'/'的下一个字符
+        String prefix = key.endsWith("/") ? key : key + "/";
+        Iterator<String> children = keys.subSet(prefix, prefix.substring(0, prefix.length() - 1) + "0").iterator();
+        while (children.hasNext()) {
+            entries.remove(children.next());
+            children.remove();
+        }
+        Path parent = new Path(key).getParent();
+        while (parent != null) {
+            String parentKey = key(parent);
+            remove(parentKey);
+            markInvalidated(parentKey, false);
+            parent = parent.getParent();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        keys.clear();
+        versions.clear();
+        // 正在进行的查询都不再写入缓存
+        generation++;
+        versionFloor = generation;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Entry lookup(Path path, Predicate<Entry> present) {
+        String key = key(path);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expireAt < System.currentTimeMillis()) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null || !present.test(entry)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * 获取要更新的记录；查询开始之后该路径被失效过时返回null
+     */
+    private Entry entryForUpdate(Path path, long observed) {
+        String key = key(path);
+        if (invalidatedSince(key, observed)) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+        // 已有记录不延长有效期，避免较早缓存的字段超过ttl仍被使用
+        if (entry == null || entry.expireAt < now) {
+            entry = new Entry();
+            entry.expireAt = now + ttlMillis;
+            entries.put(key, entry);
+            keys.add(key);
+        }
+        return entry;
+    }
+
+    /**
+     * 路径本身（包括作为上级目录被失效），或者某个上级目录的子树在observed之后被失效过
+     */
+    private boolean invalidatedSince(String key, long observed) {
+        if (observed < versionFloor) {
+            return true;
+        }
+        Version version = versions.get(key);
+        if (version != null && version.self > observed) {
+            return true;
+        }
+        for (Path parent = new Path(key).getParent(); parent != null; parent = parent.getParent()) {
+            version = versions.get(key(parent));
+            if (version != null && version.subtree > observed) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markInvalidated(String key, boolean subtree) {
+        // 先删除再放入，保持versions按失效的先后顺序排列
+        Version version = versions.remove(key);
+        if (version == null) {
+            version = new Version();
+        }
+        version.self = generation;
+        if (subtree) {
+            version.subtree = generation;
+        }
+        versions.put(key, version);
+    }
+
+    private void remove(String key) {
+        entries.remove(key);
+        keys.remove(key);
+    }
+
+    /**
+     * 统一使用不带scheme和authority的路径作为key，避免同一路径因写法不同而重复缓存
+     */
+    private static String key(Path path) {
+        return Path.getPathWithoutSchemeAndAuthority(path).toString();
+    }
+
+    private static class Entry {
+
+        private long expireAt;
+
+        private Boolean exists;
+
+        private FileStatus status;
+
+        private FileStatus[] listing;
+    }
+
+    private static class Version {
+
+        /**
+         * 该路径本身最近一次被失效的generation
+         */
+        private long self;
+
+        /**
+         * 该路径的子树最近一次被失效的generation
+         */
+        private long subtree;
+    }
+}
@@ -0,0 +1,378 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 18:00
+ * @since 1.0.0
+ * Descirption: 基于getFileBlockLocations的并行读取
+ * <p>按block边界把文件切分为若干片段（片段不跨block），多个线程在同一个输入流上用positional read并发读取。
+ * 有序读取时最多同时持有 2 * 线程数 个片段的缓冲区，内存占用与文件大小无关；
+ * 无序读取时优先读取副本在本机上的block。</p>
+ * <p>文件通过HdfsService#openStream打开，读取的字节数以及getFileStatus、getFileBlockLocations的延迟都会记录到HdfsService的指标中。</p>
+ */
+public class HdfsParallelReader implements Closeable {
+
+    private Logger logger = LoggerFactory.getLogger(HdfsParallelReader.class);
+
+    private final HdfsService hdfsService;
+
+    private final int threads;
+
+    /**
+     * 单个片段的最大字节数
+     */
+    private final int chunkSize;
+
+    private final ExecutorService executor;
+
+    /**
+     * 本机的主机名和IP，用于判断block是否有本地副本
+     */
+    private final Set<String> localHosts;
+
+    public HdfsParallelReader(HdfsService hdfsService, int threads, int chunkSize) {
+        this.hdfsService = hdfsService;
+        this.threads = Math.max(1, threads);
+        this.chunkSize = chunkSize;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread thread = new Thread(r, "hdfs-parallel-read-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.localHosts = resolveLocalHosts();
+    }
+
+    /**
+     * 按顺序把每个片段交给consumer，consumer在调用线程中执行
+     *
+     * @param path     HDFS的相对目录路径，比如：/testDir/a.txt
+     * @param consumer 片段回调，回调返回后缓冲区会被复用
+     * @return long 读取的总字节数
+     */
+    public long read(String path, ChunkConsumer consumer) throws IOException {
+        Path hdfsPath = new Path(hdfsService.generateHdfsPath(path));
+        List<Chunk> chunks = split(hdfsPath);
+
+        int window = threads * 2;
+        BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(window);
+        Deque<Future<Chunk>> pending = new ArrayDeque<>(window);
+        long total = 0;
+        ReadTasks tasks = new ReadTasks();
+
+        try (FSDataInputStream inputStream = hdfsService.openStream("open", hdfsPath, -1)) {
+            try {
+                for (Chunk chunk : chunks) {
+                    if (pending.size() >= window) {
+                        total += deliver(pending.poll(), consumer, buffers);
+                    }
+                    pending.add(executor.submit(() -> tasks.run(() -> readChunk(inputStream, chunk, buffers))));
+                }
+                while (!pending.isEmpty()) {
+                    total += deliver(pending.poll(), consumer, buffers);
+                }
+            } finally {
+                // 出错或提前退出时，在关闭输入流之前取消剩余的片段并等待正在执行的读取结束
+                tasks.cancelAndAwait(pending);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 并行读取整个文件，按顺序写入OutputStream
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir/a.txt
+     * @param out  输出流，由调用方负责关闭
+     * @return long 读取的总字节数
+     */
+    public long read(String path, OutputStream out) throws IOException {
+        return read(path, (offset, data, length) -> out.write(data, 0, length));
+    }
+
+    /**
+     * 不保证顺序地读取所有片段，副本在本机的block优先读取；consumer在读取线程中并发执行，需要线程安全
+     *
+     * @param path     HDFS的相对目录路径，比如：/testDir/a.txt
+     * @param consumer 片段回调，回调返回后缓冲区会被复用
+     * @return long 读取的总字节数
+     */
+    public long readUnordered(String path, ChunkConsumer consumer) throws IOException {
+        Path hdfsPath = new Path(hdfsService.generateHdfsPath(path));
+        List<Chunk> chunks = split(hdfsPath);
+        // 本地片段排在前面，其余保持文件顺序
+        chunks.sort((a, b) -> Boolean.compare(b.local, a.local));
+
+        BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(threads);
+        CompletionService<Chunk> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Chunk>> futures = new ArrayList<>(Math.min(chunks.size(), threads));
+        long total = 0;
+        ReadTasks tasks = new ReadTasks();
+
+        try (FSDataInputStream inputStream = hdfsService.openStream("open", hdfsPath, -1)) {
+            try {
+                int submitted = 0;
+                int completed = 0;
+                while (completed < chunks.size()) {
+                    while (submitted < chunks.size() && submitted - completed < threads) {
+                        Chunk chunk = chunks.get(submitted++);
+                        futures.add(completionService.submit(() -> tasks.run(() -> {
+                            readChunk(inputStream, chunk, buffers);
+                            try {
+                                consumer.accept(chunk.offset, chunk.data, chunk.length);
+                            } finally {
+                                buffers.offer(chunk.data);
+                                chunk.data = null;
+                            }
+                            return chunk;
+                        })));
+                    }
+                    total += await(completionService.take()).length;
+                    completed++;
+                }
+            } finally {
+                // 出错或提前退出时，在关闭输入流之前取消剩余的片段并等待正在执行的读取结束
+                tasks.cancelAndAwait(futures);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("并行读取被中断");
+        }
+        return total;
+    }
+
+    /**
+     * 关闭线程池，由Spring容器关闭时调用
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private List<Chunk> split(Path hdfsPath) throws IOException {
+        FileSystem fileSystem = hdfsService.getFileSystem();
+        FileStatus status = hdfsService.timed("getFileStatus", () -> fileSystem.getFileStatus(hdfsPath));
+        BlockLocation[] locations = hdfsService.timed("getFileBlockLocations",
+                () -> fileSystem.getFileBlockLocations(status, 0, status.getLen()));
+        return split(locations, status.getLen());
+    }
+
+    /**
+     * 按block边界切分，每个片段不超过chunkSize且不跨block
+     */
+    private List<Chunk> split(BlockLocation[] locations, long fileLength) {
+        List<Chunk> chunks = new ArrayList<>();
+        if (locations == null || locations.length == 0) {
+            locations = new BlockLocation[]{new BlockLocation(null, null, 0, fileLength)};
+        }
+        for (BlockLocation location : locations) {
+            boolean local = isLocal(location);
+            long end = location.getOffset() + location.getLength();
+            for (long offset = location.getOffset(); offset < end; offset += chunkSize) {
+                chunks.add(new Chunk(offset, (int) Math.min(chunkSize, end - offset), local));
+            }
+        }
+        return chunks;
+    }
+
+    private boolean isLocal(BlockLocation location) {
+        try {
+            for (String host : location.getHosts()) {
+                if (localHosts.contains(host)) {
+                    return true;
+                }
+            }
+            for (String name : location.getNames()) {
+                int colon = name.lastIndexOf(':');
+                if (localHosts.contains(colon > 0 ? name.substring(0, colon) : name)) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            logger.error(e.getMessage());
+        }
+        return false;
+    }
+
+    private Chunk readChunk(FSDataInputStream inputStream, Chunk chunk, BlockingQueue<byte[]> buffers) throws IOException {
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new byte[chunkSize];
+        }
+        int read = 0;
+        while (read < chunk.length) {
+            int n = inputStream.read(chunk.offset + read, buffer, read, chunk.length - read);
+            if (n < 0) {
+                buffers.offer(buffer);
+                throw new EOFException("文件在读取过程中被截断，offset:" + (chunk.offset + read));
+            }
+            read += n;
+        }
+        chunk.data = buffer;
+        return chunk;
+    }
+
+    private long deliver(Future<Chunk> future, ChunkConsumer consumer, BlockingQueue<byte[]> buffers) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = await(future);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("并行读取被中断");
+        }
+        try {
+            consumer.accept(chunk.offset, chunk.data, chunk.length);
+        } finally {
+            buffers.offer(chunk.data);
+            chunk.data = null;
+        }
+        return chunk.length;
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 一次读取中提交的片段任务；取消之后还没有开始的任务不再读取，cancelAndAwait等待已经开始的任务结束，
+     * 保证关闭输入流时没有线程还在使用它
+     */
+    private static class ReadTasks {
+
+        private boolean cancelled;
+
+        private int running;
+
+        Chunk run(Callable<Chunk> task) throws Exception {
+            synchronized (this) {
+                if (cancelled) {
+                    throw new CancellationException("并行读取已结束");
+                }
+                running++;
+            }
+            try {
+                return task.call();
+            } finally {
+                synchronized (this) {
+                    running--;
+                    notifyAll();
+                }
+            }
+        }
+
+        synchronized void cancelAndAwait(Collection<Future<Chunk>> futures) {
+            cancelled = true;
+            for (Future<Chunk> future : futures) {
+                future.cancel(true);
+            }
+            boolean interrupted = false;
+            while (running > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    // 正在执行的任务已经被中断，很快会结束，等待之后再恢复中断状态
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Set<String> resolveLocalHosts() {
+        Set<String> hosts = new HashSet<>();
+        try {
+            InetAddress localHost = InetAddress.getLocalHost();
+            hosts.add(localHost.getHostName());
+            hosts.add(localHost.getCanonicalHostName());
+            hosts.add(localHost.getHostAddress());
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            if (interfaces != null) {
+                for (NetworkInterface networkInterface : Collections.list(interfaces)) {
+                    for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
+                        hosts.add(address.getHostAddress());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 无法获取本机地址时，不做本地优先
+        }
+        return hosts;
+    }
+
+    /**
+     * 接收读取到的片段
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+
+        /**
+         * @param offset 片段在文件中的起始位置
+         * @param data   片段数据，回调返回后会被复用
+         * @param length 有效长度
+         */
+        void accept(long offset, byte[] data, int length) throws IOException;
+    }
+
+    /**
+     * 文件片段
+     */
+    private static class Chunk {
+
+        private final long offset;
+        private final int length;
+        private final boolean local;
+        private byte[] data;
+
+        Chunk(long offset, int length, boolean local) {
+            this.offset = offset;
+            this.length = length;
+            this.local = local;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import org.apache.hadoop.fs.FileAlreadyExistsException;
+import org.apache.hadoop.fs.ParentNotDirectoryException;
+import org.apache.hadoop.fs.PathIsNotEmptyDirectoryException;
+import org.apache.hadoop.fs.UnsupportedFileSystemException;
+import org.apache.hadoop.ipc.RemoteException;
+import org.apache.hadoop.security.AccessControlException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 23:30
+ * @since 1.0.0
+ * Descirption: HDFS操作的重试策略，指数退避并带随机抖动
+ * <p>只用于幂等操作（exists、getFileStatus、listStatus、open、mkdirs等）。rename、delete以及写文件重试后结果不确定，不使用重试。
+ * 文件不存在、权限不足等确定性错误不重试。</p>
+ */
+public class HdfsRetryPolicy {
+
+    /**
+     * 不重试
+     */
+    public static final HdfsRetryPolicy NONE = new HdfsRetryPolicy(1, 0, 0);
+
+    private Logger logger = LoggerFactory.getLogger(HdfsRetryPolicy.class);
+
+    /**
+     * 最多执行次数（包含第一次）
+     */
+    private final int maxAttempts;
+
+    /**
+     * 第一次重试前的等待时间，单位毫秒，之后每次翻倍
+     */
+    private final long initialBackoffMillis;
+
+    /**
+     * 单次等待时间上限，单位毫秒
+     */
+    private final long maxBackoffMillis;
+
+    public HdfsRetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(0, initialBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.initialBackoffMillis, maxBackoffMillis);
+    }
+
+    /**
+     * 执行操作，失败时按策略重试，重试次数用完后抛出最后一次的异常
+     *
+     * @param operation 操作名称，用于日志
+     * @param callable  操作
+     * @return 操作结果
+     */
+    public <T> T execute(String operation, IoCallable<T> callable) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return callable.call();
+            } catch (IOException e) {
+                if (attempt >= maxAttempts || !isRetriable(e)) {
+                    throw e;
+                }
+                long backoff = backoffMillis(attempt);
+                logger.warn("HDFS操作失败，{}毫秒后第{}次重试，operation:{}，error:{}", backoff, attempt, operation, e.toString());
+                sleep(backoff);
+            }
+        }
+    }
+
+    /**
+     * 确定性错误不重试，其余IOException（超时、连接失败、NameNode切换等）都重试
+     */
+    protected boolean isRetriable(IOException e) {
+        IOException cause = e;
+        if (e instanceof RemoteException) {
+            cause = ((RemoteException) e).unwrapRemoteException(FileNotFoundException.class, FileAlreadyExistsException.class,
+                    AccessControlException.class, ParentNotDirectoryException.class, PathIsNotEmptyDirectoryException.class);
+        }
+        return !(cause instanceof FileNotFoundException
+                || cause instanceof FileAlreadyExistsException
+                || cause instanceof AccessControlException
+                || cause instanceof ParentNotDirectoryException
+                || cause instanceof PathIsNotEmptyDirectoryException
+                || cause instanceof UnsupportedFileSystemException
+                || cause instanceof InterruptedIOException);
+    }
+
+    /**
+     * 第attempt次重试前的等待时间：initialBackoff * 2^(attempt-1)，不超过maxBackoff，再在[50%, 100%]之间随机，避免多个客户端同时重试
+     */
+    long backoffMillis(int attempt) {
+        long backoff = initialBackoffMillis << Math.min(attempt - 1, 30);
+        if (backoff <= 0 || backoff > maxBackoffMillis) {
+            backoff = maxBackoffMillis;
+        }
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getInitialBackoffMillis() {
+        return initialBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("等待重试时被中断");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+    }
+
+    /**
+     * 可以抛出IOException的操作
+     */
+    @FunctionalInterface
+    public interface IoCallable<T> {
+        T call() throws IOException;
+    }
+}
@@ -1,17 +1,51 @@
 package com.decre.hadoop.hadoopbase.service;
 
 import com.alibaba.fastjson.JSON;
+import com.decre.hadoop.hadoopbase.entity.HdfsFileInfo;
+import com.decre.hadoop.hadoopbase.service.json.JsonRecordIterator;
+import com.decre.hadoop.hadoopbase.service.metrics.HdfsMetrics;
+import com.decre.hadoop.hadoopbase.service.metrics.MeteredInputStream;
+import com.decre.hadoop.hadoopbase.service.sequence.RecordWritable;
+import com.decre.hadoop.hadoopbase.service.sequence.SequenceRecordIterator;
+import com.decre.hadoop.hadoopbase.service.sequence.SequenceRecordWriter;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.*;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
+import org.apache.hadoop.hdfs.protocol.ErasureCodingPolicy;
+import org.apache.hadoop.hdfs.protocol.ErasureCodingPolicyInfo;
+import org.apache.hadoop.io.compress.CodecPool;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
+import org.apache.hadoop.io.compress.Compressor;
+import org.apache.hadoop.io.compress.Decompressor;
 import org.apache.hadoop.mapreduce.Job;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Decre
@@ -19,9 +53,23 @@ import java.util.*;
  * @since 1.0.0
  * Descirption: HDFS相关的基本操作
  */
-public class HdfsService {
+public class HdfsService implements Closeable {
 
 
+    /**
+     * 分段读取时每个线程复用的缓冲区大小
+     */
+    private static final int RANGE_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> RANGE_BUFFER = ThreadLocal.withInitial(() -> new byte[RANGE_BUFFER_SIZE]);
+
+    /**
+     * FileChannel上传时每个线程复用的缓冲区大小
+     */
+    private static final int CHANNEL_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> CHANNEL_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(CHANNEL_BUFFER_SIZE));
+
     private Logger logger = LoggerFactory.getLogger(HdfsService.class);
     private Configuration conf = null;
 
@@ -30,9 +78,65 @@ public class HdfsService {
      */
     private String defaultHdfsUri;
 
+    /**
+     * FileSystem句柄池，句柄由池统一管理，方法内不能close
+     */
+    private FileSystemPool fileSystemPool;
+
+    /**
+     * 句柄池是否由HdfsService自己创建，是时在close中关闭；外部传入的池由创建方关闭
+     */
+    private final boolean ownsFileSystemPool;
+
+    /**
+     * 元数据缓存，为null时不缓存
+     */
+    private HdfsMetadataCache metadataCache;
+
+    /**
+     * 监控指标，默认不记录
+     */
+    private HdfsMetrics metrics = HdfsMetrics.NOOP;
+
+    /**
+     * 幂等操作的重试策略，默认不重试
+     */
+    private HdfsRetryPolicy retryPolicy = HdfsRetryPolicy.NONE;
+
+    /**
+     * 压缩格式工厂，第一次使用时根据conf创建
+     */
+    private volatile CompressionCodecFactory codecFactory;
+
+    /**
+     * 使用自己创建的句柄池，用完之后需要调用close释放句柄
+     */
     public HdfsService(Configuration conf, String defaultHdfsUri) {
+        this(conf, defaultHdfsUri, new FileSystemPool(conf, defaultHdfsUri, 1), true);
+    }
+
+    /**
+     * 使用外部传入的句柄池，close不会关闭该池
+     */
+    public HdfsService(Configuration conf, String defaultHdfsUri, FileSystemPool fileSystemPool) {
+        this(conf, defaultHdfsUri, fileSystemPool, false);
+    }
+
+    private HdfsService(Configuration conf, String defaultHdfsUri, FileSystemPool fileSystemPool, boolean ownsFileSystemPool) {
         this.conf = conf;
         this.defaultHdfsUri = defaultHdfsUri;
+        this.fileSystemPool = fileSystemPool;
+        this.ownsFileSystemPool = ownsFileSystemPool;
+    }
+
+    /**
+     * 关闭自己创建的句柄池；句柄池由外部传入（比如Spring容器中的FileSystemPool）时不做任何操作
+     */
+    @Override
+    public void close() {
+        if (ownsFileSystemPool) {
+            fileSystemPool.close();
+        }
     }
 
     /**
@@ -45,12 +149,130 @@ public class HdfsService {
     }
 
     /**
-     * 获取HDFS文件系统
+     * 获取Hadoop配置
+     *
+     * @return org.apache.hadoop.conf.Configuration
+     */
+    public Configuration getConf() {
+        return conf;
+    }
+
+    /**
+     * 打开（不存在时在第一次追加时创建）小文件打包容器，使用完之后需要close
+     *
+     * @param path HDFS的相对目录路径，比如：/packed/logs
+     * @return SmallFileContainer
+     * @author decre
+     * @since 1.0.0
+     */
+    public SmallFileContainer openSmallFileContainer(String path) throws IOException {
+        return new SmallFileContainer(this, path);
+    }
+
+    /**
+     * 获取HDFS文件系统（池中共享的句柄，调用方不能close）
      *
      * @return org.apache.hadoop.fs.FileSystem
      */
     public FileSystem getFileSystem() throws IOException {
-        return FileSystem.get(conf);
+        return fileSystemPool.get();
+    }
+
+    /**
+     * 以指定用户获取HDFS文件系统（池中共享的句柄，调用方不能close）
+     *
+     * @param user 访问HDFS的用户
+     * @return org.apache.hadoop.fs.FileSystem
+     */
+    public FileSystem getFileSystem(String user) throws IOException {
+        return fileSystemPool.get(null, user);
+    }
+
+    /**
+     * 开启元数据缓存，传入null表示关闭
+     *
+     * @param metadataCache HdfsMetadataCache
+     */
+    public void setMetadataCache(HdfsMetadataCache metadataCache) {
+        this.metadataCache = metadataCache;
+    }
+
+    /**
+     * 获取元数据缓存，可用于查看命中/未命中次数；未开启时返回null
+     *
+     * @return HdfsMetadataCache
+     */
+    public HdfsMetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    /**
+     * 失效某个路径的元数据缓存（包括子路径和上级目录），绕过HdfsService修改HDFS后可以手动调用
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir
+     */
+    public void invalidateMetadata(String path) {
+        if (metadataCache != null) {
+            metadataCache.invalidate(new Path(generateHdfsPath(path)));
+        }
+    }
+
+    /**
+     * 失效某个路径的元数据缓存，传入的是已经转换过的HDFS路径，比如generateHdfsPath的结果或FileStatus.getPath()
+     *
+     * @param hdfsPath HDFS路径，比如：hdfs://mycluster/testDir
+     */
+    public void invalidateMetadata(Path hdfsPath) {
+        if (metadataCache != null) {
+            metadataCache.invalidate(hdfsPath);
+        }
+    }
+
+    /**
+     * 设置监控指标，传入null表示不记录
+     * <p>open、getFileStatus等操作的延迟只包含NameNode RPC，数据读写体现在读写字节数上，
+     * 两者结合可以区分慢在NameNode、DataNode还是调用方自己的处理。</p>
+     *
+     * @param metrics HdfsMetrics
+     */
+    public void setMetrics(HdfsMetrics metrics) {
+        this.metrics = metrics == null ? HdfsMetrics.NOOP : metrics;
+    }
+
+    /**
+     * 获取监控指标
+     *
+     * @return HdfsMetrics
+     */
+    public HdfsMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 设置幂等操作的重试策略，传入null表示不重试
+     *
+     * @param retryPolicy HdfsRetryPolicy
+     */
+    public void setRetryPolicy(HdfsRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy == null ? HdfsRetryPolicy.NONE : retryPolicy;
+    }
+
+    /**
+     * 获取重试策略
+     *
+     * @return HdfsRetryPolicy
+     */
+    public HdfsRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * 获取FileSystem句柄池，可用于查看句柄新建/复用次数
+     *
+     * @return FileSystemPool
+     */
+    public FileSystemPool getFileSystemPool() {
+        return fileSystemPool;
     }
 
     /**
@@ -65,17 +287,30 @@ public class HdfsService {
         if (checkExists(path)) {
             return true;
         }
-        FileSystem fileSystem = null;
         try {
-            fileSystem = getFileSystem();
-            String hdfsPath = generateHdfsPath(path);
-            // 创建目录
-            return fileSystem.mkdirs(new Path(hdfsPath));
+            return mkdirChecked(path);
         } catch (IOException e) {
             logger.error(MessageFormat.format("创建HDFS目录失败，path:{0}", path), e);
             return false;
+        }
+    }
+
+    /**
+     * 创建HDFS目录，失败时抛出异常，供HdfsAsyncService、HdfsBatchOperations使用
+     */
+    public boolean mkdirChecked(String path) throws IOException {
+        HdfsMetrics.Timer timer = metrics.start("mkdir");
+        try {
+            FileSystem fileSystem = getFileSystem();
+            String hdfsPath = generateHdfsPath(path);
+            // 创建目录，mkdirs是幂等的，可以重试
+            return retryPolicy.execute("mkdir", () -> fileSystem.mkdirs(new Path(hdfsPath)));
+        } catch (IOException e) {
+            timer.fail();
+            throw e;
         } finally {
-            close(fileSystem);
+            timer.stop();
+            invalidateMetadata(path);
         }
     }
 
@@ -103,21 +338,254 @@ public class HdfsService {
      * @since 1.0.0
      */
     public void uploadFileToHdfs(boolean delSrc, boolean overwrite, String srcFile, String dstPath) {
+        try {
+            uploadChecked(delSrc, overwrite, srcFile, dstPath);
+        } catch (IOException e) {
+            logger.error(MessageFormat.format("上传文件至HDFS失败，srcFile:{0},dstPath:{1}", srcFile, dstPath), e);
+        }
+    }
+
+    /**
+     * 上传文件至HDFS，失败时抛出异常，供HdfsAsyncService使用
+     */
+    void uploadChecked(boolean delSrc, boolean overwrite, String srcFile, String dstPath) throws IOException {
         // 源文件路径
         Path localSrcPath = new Path(srcFile);
         // 目标文件路径
         Path hdfsDstPath = new Path(generateHdfsPath(dstPath));
 
-        FileSystem fileSystem = null;
+        HdfsMetrics.Timer timer = metrics.start("upload");
 
         try {
-            fileSystem = getFileSystem();
+            FileSystem fileSystem = getFileSystem();
+            // delSrc时复制后本地文件已被删除，提前取大小
+            long length = localFileLength(srcFile);
             fileSystem.copyFromLocalFile(delSrc, overwrite, localSrcPath, hdfsDstPath);
+            metrics.addBytesWritten(length);
         } catch (IOException e) {
-            logger.error(MessageFormat.format("上传文件至HDFS失败，srcFile:{0},dstPath:{1}", srcFile, dstPath), e);
+            timer.fail();
+            throw e;
+        } finally {
+            timer.stop();
+            invalidateMetadata(dstPath);
+        }
+    }
+
+    /**
+     * 使用FileChannel上传大文件至HDFS
+     * <p>直接读取本地文件（不经过LocalFileSystem的.crc校验层），每个线程复用一个4MB的缓冲区，
+     * 上传大量大文件时不会反复分配缓冲区。HDFS输出流只接受byte[]，所以使用堆内缓冲区，避免直接内存再复制一次。</p>
+     *
+     * @param srcFile   本地文件路径，比如：D:/test.txt
+     * @param dstPath   HDFS的相对路径，为已存在的目录时上传到该目录下，比如：/testDir
+     * @param overwrite 是否覆盖HDFS上面的文件
+     * @return long 上传的字节数
+     * @author decre
+     * @since 1.0.0
+     */
+    public long uploadFileWithChannel(String srcFile, String dstPath, boolean overwrite) throws IOException {
+        HdfsMetrics.Timer timer = metrics.start("uploadWithChannel");
+        Path hdfsDstPath = new Path(generateHdfsPath(dstPath));
+        ByteBuffer buffer = CHANNEL_BUFFER.get();
+        long total = 0;
+        metrics.streamOpened();
+        try {
+            FileSystem fileSystem = getFileSystem();
+            try {
+                if (fileSystem.getFileStatus(hdfsDstPath).isDirectory()) {
+                    hdfsDstPath = new Path(hdfsDstPath, Paths.get(srcFile).getFileName().toString());
+                }
+            } catch (FileNotFoundException e) {
+                // 目标不存在，作为文件路径处理
+            }
+
+            try (FileChannel channel = FileChannel.open(Paths.get(srcFile), StandardOpenOption.READ);
+                 FSDataOutputStream out = fileSystem.create(hdfsDstPath, overwrite, CHANNEL_BUFFER_SIZE)) {
+                while (true) {
+                    buffer.clear();
+                    int read = channel.read(buffer);
+                    if (read < 0) {
+                        break;
+                    }
+                    out.write(buffer.array(), buffer.arrayOffset(), read);
+                    total += read;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            timer.fail();
+            throw e;
         } finally {
-            close(fileSystem);
+            metrics.addBytesWritten(total);
+            metrics.streamClosed();
+            timer.stop();
+            invalidateMetadata(dstPath);
         }
+        return total;
+    }
+
+    /**
+     * 将本地文件写入HDFS，可以指定压缩格式、缓冲区、副本数、block大小以及校验和类型
+     *
+     * @param srcFile 本地文件路径，比如：D:/test.txt
+     * @param dstFile HDFS的相对文件路径，比如：/testDir/test.txt.gz，使用压缩时建议带上压缩格式的扩展名，读取时才能自动解压
+     * @param options 写入参数
+     * @return long 写入的原始（压缩前）字节数
+     * @author decre
+     * @since 1.0.0
+     */
+    public long write(String srcFile, String dstFile, HdfsWriteOptions options) throws IOException {
+        try (InputStream in = new FileInputStream(srcFile)) {
+            return write(in, dstFile, options);
+        }
+    }
+
+    /**
+     * 将InputStream写入HDFS，InputStream由调用方负责关闭
+     *
+     * @param in      输入流
+     * @param dstFile HDFS的相对文件路径，比如：/testDir/test.txt.gz
+     * @param options 写入参数
+     * @return long 写入的原始（压缩前）字节数
+     * @author decre
+     * @since 1.0.0
+     */
+    public long write(InputStream in, String dstFile, HdfsWriteOptions options) throws IOException {
+        int bufferSize = options.getBufferSize() != null ? options.getBufferSize() : conf.getInt("io.file.buffer.size", 4096);
+        return write(dstFile, options, out -> IOUtils.copyLarge(in, out, new byte[bufferSize]));
+    }
+
+    /**
+     * 由调用方向输出流中写入数据，写完后自动完成压缩并关闭文件
+     *
+     * @param dstFile HDFS的相对文件路径，比如：/testDir/test.txt.gz
+     * @param options 写入参数
+     * @param writer  向输出流写数据，不需要关闭输出流
+     * @return long 写入的原始（压缩前）字节数
+     * @author decre
+     * @since 1.0.0
+     */
+    public long write(String dstFile, HdfsWriteOptions options, StreamWriter writer) throws IOException {
+        HdfsMetrics.Timer timer = metrics.start("write");
+        metrics.streamOpened();
+        try {
+            return doWrite(dstFile, options, writer);
+        } catch (IOException | RuntimeException e) {
+            timer.fail();
+            throw e;
+        } finally {
+            metrics.streamClosed();
+            timer.stop();
+        }
+    }
+
+    private long doWrite(String dstFile, HdfsWriteOptions options, StreamWriter writer) throws IOException {
+        Path hdfsPath = new Path(generateHdfsPath(dstFile));
+        FileSystem fileSystem = getFileSystem();
+
+        int bufferSize = options.getBufferSize() != null ? options.getBufferSize() : conf.getInt("io.file.buffer.size", 4096);
+        short replication = options.getReplication() != null ? options.getReplication() : fileSystem.getDefaultReplication(hdfsPath);
+        long blockSize = options.getBlockSize() != null ? options.getBlockSize() : fileSystem.getDefaultBlockSize(hdfsPath);
+        Options.ChecksumOpt checksumOpt = null;
+        if (options.getChecksumType() != null) {
+            int bytesPerChecksum = options.getBytesPerChecksum() != null ? options.getBytesPerChecksum() : conf.getInt("dfs.bytes-per-checksum", 512);
+            checksumOpt = new Options.ChecksumOpt(options.getChecksumType(), bytesPerChecksum);
+        }
+        EnumSet<CreateFlag> flags = options.isOverwrite() ? EnumSet.of(CreateFlag.CREATE, CreateFlag.OVERWRITE) : EnumSet.of(CreateFlag.CREATE);
+        FsPermission permission = FsPermission.getFileDefault().applyUMask(FsPermission.getUMask(conf));
+
+        CompressionCodec codec = getCodecByName(options.getCodec());
+        Compressor compressor = null;
+        FSDataOutputStream createdOut = null;
+        try (FSDataOutputStream rawOut = fileSystem.create(hdfsPath, permission, flags, bufferSize, replication, blockSize, null, checksumOpt)) {
+            createdOut = rawOut;
+            OutputStream out = rawOut;
+            if (codec != null) {
+                compressor = CodecPool.getCompressor(codec, conf);
+                out = codec.createOutputStream(rawOut, compressor);
+            }
+            CountingOutputStream countingOut = new CountingOutputStream(out);
+            writer.write(countingOut);
+            countingOut.flush();
+            if (out instanceof CompressionOutputStream) {
+                ((CompressionOutputStream) out).finish();
+            }
+            return countingOut.getByteCount();
+        } finally {
+            if (createdOut != null) {
+                // 实际写入HDFS的（压缩后）字节数
+                metrics.addBytesWritten(createdOut.getPos());
+            }
+            if (compressor != null) {
+                CodecPool.returnCompressor(compressor);
+            }
+            invalidateMetadata(dstFile);
+        }
+    }
+
+    /**
+     * 打开HDFS上面的文件，根据扩展名（.gz、.bz2、.lz4、.snappy、.zst等）自动解压；不是压缩文件时直接返回原始流
+     * <p>使用完之后需要close</p>
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir/test.txt.gz
+     * @return java.io.InputStream
+     * @author decre
+     * @since 1.0.0
+     */
+    public InputStream openDecompressed(String path) throws IOException {
+        return openDecompressed(new Path(generateHdfsPath(path)));
+    }
+
+    private InputStream openDecompressed(Path hdfsPath) throws IOException {
+        FSDataInputStream rawIn = openStream("open", hdfsPath, -1);
+        CompressionCodec codec = getCodecFactory().getCodec(hdfsPath);
+        if (codec == null) {
+            return rawIn;
+        }
+        Decompressor decompressor = CodecPool.getDecompressor(codec);
+        try {
+            return new FilterInputStream(codec.createInputStream(rawIn, decompressor)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        CodecPool.returnDecompressor(decompressor);
+                    }
+                }
+            };
+        } catch (IOException e) {
+            CodecPool.returnDecompressor(decompressor);
+            rawIn.close();
+            throw e;
+        }
+    }
+
+    private CompressionCodec getCodecByName(String name) {
+        if (name == null) {
+            return null;
+        }
+        // ZStandardCodec按类名只能匹配zstandard，这里兼容常用的简写zstd
+        String codecName = "zstd".equalsIgnoreCase(name) ? "zstandard" : name;
+        CompressionCodec codec = getCodecFactory().getCodecByName(codecName);
+        if (codec == null) {
+            throw new IllegalArgumentException("不支持的压缩格式：" + name);
+        }
+        return codec;
+    }
+
+    private CompressionCodecFactory getCodecFactory() {
+        if (codecFactory == null) {
+            codecFactory = new CompressionCodecFactory(conf);
+        }
+        return codecFactory;
+    }
+
+    /**
+     * 向HDFS输出流中写入数据
+     */
+    @FunctionalInterface
+    public interface StreamWriter {
+        void write(OutputStream out) throws IOException;
     }
 
     /**
@@ -129,23 +597,90 @@ public class HdfsService {
      * @since 1.0.0
      */
     public boolean checkExists(String path) {
-        FileSystem fileSystem = null;
         try {
-            fileSystem = getFileSystem();
-            // 最终的hdfs文件目录
-            String hdfsPath = generateHdfsPath(path);
-
-            // 判断目录是否存在
-            return fileSystem.exists(new Path(hdfsPath));
+            return existsChecked(path);
         } catch (IOException e) {
             logger.error(MessageFormat.format("'判断文件或者目录是否在HDFS上面存在'失败，path:{0}", path), e);
             return false;
+        }
+    }
+
+    /**
+     * 判断文件或者目录是否在HDFS上面存在，失败时抛出异常，供HdfsAsyncService、HdfsBatchOperations使用
+     */
+    public boolean existsChecked(String path) throws IOException {
+        FileSystem fileSystem = getFileSystem();
+        // 最终的hdfs文件目录
+        Path hdfsPath = new Path(generateHdfsPath(path));
+
+        HdfsMetadataCache cache = metadataCache;
+        long generation = 0;
+        if (cache != null) {
+            Boolean cached = cache.getExists(hdfsPath);
+            if (cached != null) {
+                return cached;
+            }
+            generation = cache.generation();
+        }
+
+        // 判断目录是否存在
+        HdfsMetrics.Timer timer = metrics.start("exists");
+        boolean exists;
+        try {
+            exists = retryPolicy.execute("exists", () -> fileSystem.exists(hdfsPath));
+        } catch (IOException e) {
+            timer.fail();
+            throw e;
         } finally {
-            close(fileSystem);
+            timer.stop();
         }
+        if (cache != null) {
+            cache.putExists(hdfsPath, exists, generation);
+        }
+        return exists;
     }
 
 
+    /**
+     * 获取HDFS上面的文件或目录的FileStatus，开启元数据缓存时优先从缓存中获取
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir/a.txt
+     * @return org.apache.hadoop.fs.FileStatus 不存在或者失败时返回null
+     * @author decre
+     * @since 1.0.0
+     */
+    public FileStatus getFileStatus(String path) {
+        Path hdfsPath = new Path(generateHdfsPath(path));
+        HdfsMetadataCache cache = metadataCache;
+        long generation = 0;
+        if (cache != null) {
+            FileStatus cached = cache.getStatus(hdfsPath);
+            if (cached != null) {
+                return cached;
+            }
+            generation = cache.generation();
+        }
+        HdfsMetrics.Timer timer = metrics.start("getFileStatus");
+        try {
+            FileSystem fileSystem = getFileSystem();
+            FileStatus status = retryPolicy.execute("getFileStatus", () -> fileSystem.getFileStatus(hdfsPath));
+            if (cache != null) {
+                cache.putStatus(hdfsPath, status, generation);
+            }
+            return status;
+        } catch (FileNotFoundException e) {
+            if (cache != null) {
+                cache.putExists(hdfsPath, false, generation);
+            }
+        } catch (IOException e) {
+            timer.fail();
+            logger.error(MessageFormat.format("获取HDFS文件状态失败，path:{0}", path), e);
+        } finally {
+            timer.stop();
+        }
+        return null;
+    }
+
     /**
      * 获取HDFS上面的某个路径下面的所有文件或目录（不包含子目录）信息
      *
@@ -159,20 +694,8 @@ public class HdfsService {
         List<Map<String, Object>> result = new ArrayList<>();
         // 目录已存在才进行操作
         if (checkExists(path)) {
-            FileSystem fileSystem = null;
-
             try {
-                fileSystem = getFileSystem();
-                // 最终的hdfs路径
-                String hdfsPath = generateHdfsPath(path);
-
-                FileStatus[] statuses;
-                // 根据Path过滤器查询
-                if (pathFilter != null) {
-                    statuses = fileSystem.listStatus(new Path(hdfsPath), pathFilter);
-                } else {
-                    statuses = fileSystem.listStatus(new Path(hdfsPath));
-                }
+                FileStatus[] statuses = listStatusChecked(path, pathFilter);
 
                 if (statuses != null) {
                     Arrays.stream(statuses).forEach(fs -> {
@@ -186,8 +709,6 @@ public class HdfsService {
 
             } catch (IOException e) {
                 logger.error(MessageFormat.format("获取HDFS上面的某个路径下面的所有文件失败，path:{0}", path), e);
-            } finally {
-                close(fileSystem);
             }
         }
 
@@ -195,6 +716,165 @@ public class HdfsService {
 
     }
 
+    /**
+     * 获取某个路径下面的所有文件或目录（不包含子目录）的FileStatus，不带过滤器时使用元数据缓存；
+     * 路径不存在时抛出FileNotFoundException，供HdfsAsyncService使用
+     */
+    FileStatus[] listStatusChecked(String path, PathFilter pathFilter) throws IOException {
+        FileSystem fileSystem = getFileSystem();
+        // 最终的hdfs路径
+        Path hdfsPath = new Path(generateHdfsPath(path));
+
+        // 根据Path过滤器查询
+        if (pathFilter != null) {
+            return listStatus(fileSystem, hdfsPath, pathFilter);
+        }
+        HdfsMetadataCache cache = metadataCache;
+        if (cache == null) {
+            return listStatus(fileSystem, hdfsPath, null);
+        }
+        // 只缓存不带过滤器的列表
+        FileStatus[] statuses = cache.getListing(hdfsPath);
+        if (statuses == null) {
+            long generation = cache.generation();
+            statuses = listStatus(fileSystem, hdfsPath, null);
+            cache.putListing(hdfsPath, statuses, generation);
+        }
+        return statuses;
+    }
+
+    private FileStatus[] listStatus(FileSystem fileSystem, Path hdfsPath, PathFilter pathFilter) throws IOException {
+        HdfsMetrics.Timer timer = metrics.start("listStatus");
+        try {
+            return retryPolicy.execute("listStatus",
+                    () -> pathFilter == null ? fileSystem.listStatus(hdfsPath) : fileSystem.listStatus(hdfsPath, pathFilter));
+        } catch (IOException e) {
+            timer.fail();
+            throw e;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * 惰性遍历HDFS上面的某个路径下面的文件或目录，结果按需分页拉取，不会一次性加载到内存中
+     * <p>路径不存在时抛出FileNotFoundException，不再单独调用checkExists</p>
+     *
+     * @param path       HDFS的相对目录路径，比如：/testDir
+     * @param recursive  是否包含子目录
+     * @param pathFilter 过滤器，可以为null
+     * @return org.apache.hadoop.fs.RemoteIterator
+     * @author decre
+     * @since 1.0.0
+     */
+    public RemoteIterator<HdfsFileInfo> listFilesLazily(String path, boolean recursive, PathFilter pathFilter) throws IOException {
+        return listFilesLazily(path, recursive, pathFilter, null);
+    }
+
+    /**
+     * 惰性遍历HDFS上面的某个路径下面的文件或目录，dirFilter拒绝的子目录不会被列出，整棵子树都不会产生NameNode调用
+     *
+     * @param path       HDFS的相对目录路径，比如：/testDir
+     * @param recursive  是否包含子目录
+     * @param pathFilter 返回记录的过滤器，可以为null
+     * @param dirFilter  子目录过滤器，在列出子目录之前调用，可以为null
+     * @return org.apache.hadoop.fs.RemoteIterator
+     * @author decre
+     * @since 1.0.0
+     */
+    public RemoteIterator<HdfsFileInfo> listFilesLazily(String path, boolean recursive, PathFilter pathFilter, PathFilter dirFilter) throws IOException {
+        return new HdfsFileIterator(getFileSystem(), new Path(generateHdfsPath(path)), recursive, pathFilter, dirFilter, metrics);
+    }
+
+    /**
+     * 分页遍历HDFS上面的某个路径下面的文件或目录，每凑满pageSize条回调一次
+     *
+     * @param path       HDFS的相对目录路径，比如：/testDir
+     * @param recursive  是否包含子目录
+     * @param pathFilter 过滤器，可以为null
+     * @param pageSize   每页数量
+     * @param consumer   分页回调
+     * @return long 记录总数
+     * @author decre
+     * @since 1.0.0
+     */
+    public long listFiles(String path, boolean recursive, PathFilter pathFilter, int pageSize, Consumer<List<HdfsFileInfo>> consumer) throws IOException {
+        long count = 0;
+        List<HdfsFileInfo> page = new ArrayList<>(pageSize);
+        RemoteIterator<HdfsFileInfo> iterator = listFilesLazily(path, recursive, pathFilter);
+        while (iterator.hasNext()) {
+            page.add(iterator.next());
+            count++;
+            if (page.size() >= pageSize) {
+                consumer.accept(page);
+                page = new ArrayList<>(pageSize);
+            }
+        }
+        if (!page.isEmpty()) {
+            consumer.accept(page);
+        }
+        return count;
+    }
+
+    /**
+     * 按glob查找文件，比如：/logs/2019/04/0[1-7]/1?/*.log、/logs/{2019,2020}/*
+     * <p>glob由globStatus展开，每一层通配符只需要列出一次目录；匹配到的目录先经过dirFilter，被拒绝的目录不会再被列出，
+     * 整棵子树都不会产生NameNode调用。只返回文件，不返回目录。</p>
+     *
+     * @param pathPattern HDFS的相对路径，支持glob
+     * @param fileFilter  文件过滤器，可以为null
+     * @param dirFilter   目录过滤器，在列出目录之前调用，可以为null
+     * @param recursive   是否遍历匹配到的目录的子目录；为false时只列出匹配到的目录下一层的文件
+     * @return java.util.List 没有匹配时返回空列表
+     * @author decre
+     * @since 1.0.0
+     */
+    public List<HdfsFileInfo> findFiles(String pathPattern, HdfsFileFilter fileFilter, HdfsFileFilter dirFilter, boolean recursive) throws IOException {
+        FileSystem fileSystem = getFileSystem();
+        Path pattern = new Path(generateHdfsPath(pathPattern));
+        List<HdfsFileInfo> result = new ArrayList<>();
+
+        FileStatus[] matches;
+        HdfsMetrics.Timer timer = metrics.start("globStatus");
+        try {
+            matches = retryPolicy.execute("globStatus", () -> fileSystem.globStatus(pattern));
+        } catch (IOException e) {
+            timer.fail();
+            throw e;
+        } finally {
+            timer.stop();
+        }
+        if (matches == null) {
+            return result;
+        }
+
+        Deque<FileStatus> directories = new ArrayDeque<>();
+        for (FileStatus status : matches) {
+            if (status.isDirectory()) {
+                directories.push(status);
+            } else if (fileFilter == null || fileFilter.accept(status)) {
+                result.add(HdfsFileInfo.of(status));
+            }
+        }
+
+        while (!directories.isEmpty()) {
+            FileStatus directory = directories.pop();
+            if (dirFilter != null && !dirFilter.accept(directory)) {
+                continue;
+            }
+            for (FileStatus status : listStatus(fileSystem, directory.getPath(), null)) {
+                if (status.isDirectory()) {
+                    if (recursive) {
+                        directories.push(status);
+                    }
+                } else if (fileFilter == null || fileFilter.accept(status)) {
+                    result.add(HdfsFileInfo.of(status));
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * 从HDFS下载文件至本地
      *
@@ -203,21 +883,38 @@ public class HdfsService {
      * @author decre
      * @since 1.0.0
      */
-    public void downloadFileFromHdfs(String srcFile, String dstFile) {
+    public void downloadFileFromHdfs(String srcFile, String dstFile) {
+        try {
+            downloadChecked(srcFile, dstFile);
+        } catch (IOException e) {
+            logger.error(MessageFormat.format("从HDFS下载文件至本地失败，srcFile:{0},dstFile:{1}", srcFile, dstFile), e);
+        }
+    }
+
+    /**
+     * 从HDFS下载文件至本地，失败时抛出异常，供HdfsAsyncService使用
+     */
+    void downloadChecked(String srcFile, String dstFile) throws IOException {
         // HDFS路径
         Path hdfsPath = new Path(generateHdfsPath(srcFile));
         // 下载之后的本地路径
         Path localDstPath = new Path(dstFile);
 
-        FileSystem fileSystem = null;
+        HdfsMetrics.Timer timer = metrics.start("download");
 
         try {
-            fileSystem = getFileSystem();
-            fileSystem.copyToLocalFile(hdfsPath, localDstPath);
+            FileSystem fileSystem = getFileSystem();
+            // 下载会覆盖本地文件，可以重试
+            retryPolicy.execute("download", () -> {
+                fileSystem.copyToLocalFile(hdfsPath, localDstPath);
+                return null;
+            });
+            metrics.addBytesRead(localFileLength(dstFile));
         } catch (IOException e) {
-            logger.error(MessageFormat.format("从HDFS下载文件至本地失败，srcFile:{0},dstFile:{1}", srcFile, dstFile), e);
+            timer.fail();
+            throw e;
         } finally {
-            close(fileSystem);
+            timer.stop();
         }
     }
 
@@ -233,12 +930,8 @@ public class HdfsService {
         // HDFS文件路径
         Path hdfsPath = new Path(generateHdfsPath(path));
 
-        FileSystem fileSystem = null;
-
         try {
-            fileSystem = getFileSystem();
-
-            return fileSystem.open(hdfsPath);
+            return openStream("open", hdfsPath, -1);
         } catch (IOException e) {
             logger.error(MessageFormat.format("打开HDFS上面的文件失败，path:{0}", path), e);
         }
@@ -246,6 +939,13 @@ public class HdfsService {
         return null;
     }
 
+    /**
+     * 打开HDFS上面的文件，失败时抛出异常，供HdfsAsyncService使用
+     */
+    FSDataInputStream openChecked(String path) throws IOException {
+        return openStream("open", new Path(generateHdfsPath(path)), -1);
+    }
+
     /**
      * 打开HDFS上面的文件并返回byte数组，方便Web端下载文件
      * <p>new ResponseEntity<byte[]>(byte数组, headers, HttpStatus.CREATED);</p>
@@ -260,12 +960,10 @@ public class HdfsService {
         // HDFS文件路径
         Path hdfsPath = new Path(generateHdfsPath(path));
 
-        FileSystem fileSystem = null;
         FSDataInputStream inputStream = null;
 
         try {
-            fileSystem = getFileSystem();
-            inputStream = fileSystem.open(hdfsPath);
+            inputStream = openStream("open", hdfsPath, -1);
 
             return IOUtils.toByteArray(inputStream);
         } catch (IOException e) {
@@ -294,12 +992,10 @@ public class HdfsService {
         // HDFS文件路径
         Path hdfsPath = new Path(generateHdfsPath(path));
 
-        FileSystem fileSystem = null;
         FSDataInputStream inputStream = null;
 
         try {
-            fileSystem = getFileSystem();
-            inputStream = fileSystem.open(hdfsPath);
+            inputStream = openStream("open", hdfsPath, -1);
 
             return IOUtils.toString(inputStream, Charset.forName("UTF-8"));
         } catch (IOException e) {
@@ -312,11 +1008,118 @@ public class HdfsService {
                     //
                 }
             }
-            // close(fileSystem); 不能close否则后续操作会失败
         }
         return null;
     }
 
+    /**
+     * 使用positional read（pread）读取HDFS文件的一段内容，不会读取整个文件
+     *
+     * @param path   HDFS的相对目录路径，比如：/testDir/b.txt
+     * @param offset 起始位置
+     * @param length 读取长度，超过文件末尾时只返回剩余部分
+     * @return byte[]
+     * @author decre
+     * @since 1.0.0
+     */
+    public byte[] readRange(String path, long offset, int length) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException(MessageFormat.format("offset和length不能小于0，offset:{0},length:{1}", offset, length));
+        }
+        // HDFS文件路径
+        Path hdfsPath = new Path(generateHdfsPath(path));
+
+        try (FSDataInputStream inputStream = openStream("open", hdfsPath, -1)) {
+            byte[] data = new byte[length];
+            int total = 0;
+            while (total < length) {
+                int read = inputStream.read(offset + total, data, total, length - total);
+                if (read < 0) {
+                    break;
+                }
+                total += read;
+            }
+            return total == length ? data : Arrays.copyOf(data, total);
+        } catch (IOException e) {
+            logger.error(MessageFormat.format("读取HDFS文件片段失败，path:{0},offset:{1},length:{2}", path, offset, length), e);
+        }
+        return null;
+    }
+
+    /**
+     * 将HDFS文件的一段内容写入OutputStream，使用固定大小的复用缓冲区，内存占用与文件大小无关，
+     * 可直接用于响应HTTP Range请求
+     * <p>只seek一次然后顺序读取，同一个block内复用一个block reader；readRange的pread每次调用都会新建block reader，只适合读取小片段</p>
+     *
+     * @param path   HDFS的相对目录路径，比如：/testDir/b.txt
+     * @param offset 起始位置
+     * @param length 读取长度，小于0表示读到文件末尾
+     * @param out    输出流，由调用方负责关闭
+     * @return long 实际写出的字节数
+     * @author decre
+     * @since 1.0.0
+     */
+    public long copyRange(String path, long offset, long length, OutputStream out) throws IOException {
+        return copyRange(path, offset, length, (buffer, len) -> out.write(buffer, 0, len));
+    }
+
+    /**
+     * 将HDFS文件的一段内容写入WritableByteChannel，使用固定大小的复用缓冲区
+     *
+     * @param path    HDFS的相对目录路径，比如：/testDir/b.txt
+     * @param offset  起始位置
+     * @param length  读取长度，小于0表示读到文件末尾
+     * @param channel 输出通道，由调用方负责关闭
+     * @return long 实际写出的字节数
+     * @author decre
+     * @since 1.0.0
+     */
+    public long copyRange(String path, long offset, long length, WritableByteChannel channel) throws IOException {
+        return copyRange(path, offset, length, (buffer, len) -> {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, len);
+            while (byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer);
+            }
+        });
+    }
+
+    private long copyRange(String path, long offset, long length, ChunkSink sink) throws IOException {
+        // HDFS文件路径
+        Path hdfsPath = new Path(generateHdfsPath(path));
+        byte[] buffer = RANGE_BUFFER.get();
+
+        try (FSDataInputStream inputStream = openStream("open", hdfsPath, RANGE_BUFFER_SIZE)) {
+            if (offset > 0) {
+                try {
+                    inputStream.seek(offset);
+                } catch (EOFException e) {
+                    // 起始位置超过文件末尾，与pread一致返回0字节
+                    return 0;
+                }
+            }
+            long copied = 0;
+            long remaining = length < 0 ? Long.MAX_VALUE : length;
+            while (remaining > 0) {
+                int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                sink.write(buffer, read);
+                copied += read;
+                remaining -= read;
+            }
+            return copied;
+        }
+    }
+
+    /**
+     * 分段读取时接收每一段数据
+     */
+    @FunctionalInterface
+    private interface ChunkSink {
+        void write(byte[] buffer, int length) throws IOException;
+    }
+
     /**
      * 打开HDFS上面的文件并转换为Java对象（需要HDFS上门的文件内容为JSON字符串）
      *
@@ -333,6 +1136,130 @@ public class HdfsService {
         return JSON.parseObject(jsonStr, clazz);
     }
 
+    /**
+     * 逐条读取HDFS上面的文件并转换为Java对象，文件内容为每行一个JSON对象（JSON Lines）或者JSON数组，
+     * 一次只解析一条记录，适合处理大文件；压缩文件根据扩展名自动解压
+     * <p>使用完之后需要close</p>
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir/users.json
+     * @return JsonRecordIterator
+     * @author decre
+     * @since 1.0.0
+     */
+    public <T> JsonRecordIterator<T> openWithObjects(String path, Class<T> clazz) throws IOException {
+        // HDFS文件路径
+        Path hdfsPath = new Path(generateHdfsPath(path));
+
+        InputStream inputStream = openDecompressed(hdfsPath);
+        try {
+            return new JsonRecordIterator<>(inputStream, clazz);
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 以Stream的方式逐条读取HDFS上面的JSON对象，Stream关闭时关闭文件，JSON的null元素在Stream中为null
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir/users.json
+     * @return java.util.stream.Stream
+     * @author decre
+     * @since 1.0.0
+     */
+    public <T> Stream<T> streamWithObjects(String path, Class<T> clazz) throws IOException {
+        JsonRecordIterator<T> iterator = openWithObjects(path, clazz);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                iterator.close();
+            } catch (IOException e) {
+                logger.error(e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 逐条读取HDFS上面的JSON对象，每凑满batchSize条回调一次
+     *
+     * @param path      HDFS的相对目录路径，比如：/testDir/users.json
+     * @param batchSize 每批数量
+     * @param consumer  批量回调，回调结束后批次中的对象不会再被引用
+     * @return long 读取的记录总数
+     * @author decre
+     * @since 1.0.0
+     */
+    public <T> long openWithObjects(String path, Class<T> clazz, int batchSize, Consumer<List<T>> consumer) throws IOException {
+        long count = 0;
+        List<T> batch = new ArrayList<>(batchSize);
+        try (JsonRecordIterator<T> iterator = openWithObjects(path, clazz)) {
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                count++;
+                if (batch.size() >= batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+        return count;
+    }
+
+    /**
+     * 创建SequenceFile写入Java对象，使用BLOCK压缩（默认压缩格式），覆盖已存在的文件
+     * <p>使用完之后需要close</p>
+     *
+     * @param dstFile    HDFS的相对文件路径，比如：/testDir/users.seq
+     * @param valueClass RecordWritable的实现类，比如：UserWritable.class
+     * @return SequenceRecordWriter
+     * @author decre
+     * @since 1.0.0
+     */
+    public <T> SequenceRecordWriter<T> createRecordWriter(String dstFile, Class<? extends RecordWritable<T>> valueClass) throws IOException {
+        return createRecordWriter(dstFile, valueClass, "default", true);
+    }
+
+    /**
+     * 创建SequenceFile写入Java对象
+     * <p>使用完之后需要close</p>
+     *
+     * @param dstFile    HDFS的相对文件路径，比如：/testDir/users.seq
+     * @param valueClass RecordWritable的实现类，比如：UserWritable.class
+     * @param codec      压缩格式，比如：default、gzip、snappy，为null时不压缩，否则使用BLOCK压缩
+     * @param overwrite  是否覆盖已存在的文件
+     * @return SequenceRecordWriter
+     * @author decre
+     * @since 1.0.0
+     */
+    public <T> SequenceRecordWriter<T> createRecordWriter(String dstFile, Class<? extends RecordWritable<T>> valueClass,
+                                                          String codec, boolean overwrite) throws IOException {
+        Path hdfsPath = new Path(generateHdfsPath(dstFile));
+        CompressionCodec compressionCodec = getCodecByName(codec);
+        try {
+            return new SequenceRecordWriter<>(conf, getFileSystem().create(hdfsPath, overwrite), valueClass, compressionCodec);
+        } finally {
+            invalidateMetadata(dstFile);
+        }
+    }
+
+    /**
+     * 逐条读取SequenceFile中的Java对象，value类型从文件头中读取
+     * <p>使用完之后需要close</p>
+     *
+     * @param path HDFS的相对文件路径，比如：/testDir/users.seq
+     * @return SequenceRecordIterator
+     * @author decre
+     * @since 1.0.0
+     */
+    public <T> SequenceRecordIterator<T> openWithRecords(String path) throws IOException {
+        Path hdfsPath = new Path(generateHdfsPath(path));
+        long length = getFileSystem().getFileStatus(hdfsPath).getLen();
+        return new SequenceRecordIterator<>(conf, openStream("open", hdfsPath, -1), length);
+    }
+
     /**
      * 重命名
      *
@@ -347,20 +1274,42 @@ public class HdfsService {
         // 重命名后路径
         Path dstFilePath = new Path(dstFile);
 
-        FileSystem fileSystem = null;
-
         try {
-            fileSystem = getFileSystem();
-            return fileSystem.rename(srcFilePath, dstFilePath);
+            return rename(srcFilePath, dstFilePath);
         } catch (IOException e) {
             logger.error(MessageFormat.format("重命名失败，srcFile:{0},dstFile:{1}", srcFile, dstFile), e);
         } finally {
-            close(fileSystem);
+            invalidateMetadata(srcFile);
+            invalidateMetadata(dstFile);
         }
 
         return false;
     }
 
+    /**
+     * 重命名，两个路径都是HDFS的相对目录路径，失败时抛出异常，供HdfsAsyncService、HdfsBatchOperations使用
+     */
+    public boolean renameChecked(String srcFile, String dstFile) throws IOException {
+        try {
+            return rename(new Path(generateHdfsPath(srcFile)), new Path(generateHdfsPath(dstFile)));
+        } finally {
+            invalidateMetadata(srcFile);
+            invalidateMetadata(dstFile);
+        }
+    }
+
+    private boolean rename(Path srcFilePath, Path dstFilePath) throws IOException {
+        HdfsMetrics.Timer timer = metrics.start("rename");
+        try {
+            return getFileSystem().rename(srcFilePath, dstFilePath);
+        } catch (IOException e) {
+            timer.fail();
+            throw e;
+        } finally {
+            timer.stop();
+        }
+    }
+
     /**
      * 删除HDFS文件或目录
      *
@@ -370,22 +1319,33 @@ public class HdfsService {
      * @since 1.0.0
      */
     public boolean delete(String path) {
+        try {
+            return deleteChecked(path);
+        } catch (IOException e) {
+            logger.error(MessageFormat.format("删除HDFS文件或目录失败，path:{0}", path), e);
+        }
+
+        return false;
+    }
+
+    /**
+     * 删除HDFS文件或目录（递归删除），失败时抛出异常，供HdfsAsyncService、HdfsBatchOperations使用
+     */
+    public boolean deleteChecked(String path) throws IOException {
         // HDFS文件路径
         Path hdfsPath = new Path(generateHdfsPath(path));
 
-        FileSystem fileSystem = null;
+        HdfsMetrics.Timer timer = metrics.start("delete");
 
         try {
-            fileSystem = getFileSystem();
-
-            return fileSystem.delete(hdfsPath, true);
+            return getFileSystem().delete(hdfsPath, true);
         } catch (IOException e) {
-            logger.error(MessageFormat.format("删除HDFS文件或目录失败，path:{0}", path), e);
+            timer.fail();
+            throw e;
         } finally {
-            close(fileSystem);
+            timer.stop();
+            invalidateMetadata(path);
         }
-
-        return false;
     }
 
     /**
@@ -400,21 +1360,219 @@ public class HdfsService {
         //HDFS文件路径
         Path hdfsPath = new Path(generateHdfsPath(path));
 
-        FileSystem fileSystem = null;
+        HdfsMetrics.Timer timer = metrics.start("getFileBlockLocations");
         try {
-            fileSystem = getFileSystem();
-            FileStatus fileStatus = fileSystem.getFileStatus(hdfsPath);
-
-            return fileSystem.getFileBlockLocations(fileStatus, 0, fileStatus.getLen());
+            FileSystem fileSystem = getFileSystem();
+            return retryPolicy.execute("getFileBlockLocations", () -> {
+                FileStatus fileStatus = fileSystem.getFileStatus(hdfsPath);
+                return fileSystem.getFileBlockLocations(fileStatus, 0, fileStatus.getLen());
+            });
         } catch (IOException e) {
+            timer.fail();
             logger.error(MessageFormat.format("获取某个文件在HDFS集群的位置失败，path:{0}", path), e);
         } finally {
-            close(fileSystem);
+            timer.stop();
         }
 
         return null;
     }
 
+    /**
+     * 设置目录或文件的存储策略，比如：HOT、WARM、COLD、ALL_SSD、ONE_SSD
+     * <p>只修改元数据，已有的block需要运行Mover才会迁移，参考HdfsAgeBasedMover</p>
+     *
+     * @param path          HDFS的相对目录路径，比如：/archive
+     * @param storagePolicy 存储策略名称
+     * @author decre
+     * @since 1.0.0
+     */
+    public void setStoragePolicy(String path, String storagePolicy) throws IOException {
+        try {
+            getFileSystem().setStoragePolicy(new Path(generateHdfsPath(path)), storagePolicy);
+        } finally {
+            // 缓存的FileStatus中包含存储策略、纠删码标记
+            invalidateMetadata(path);
+        }
+    }
+
+    /**
+     * 取消目录或文件上设置的存储策略，之后继承上级目录的策略
+     *
+     * @param path HDFS的相对目录路径，比如：/archive
+     * @author decre
+     * @since 1.0.0
+     */
+    public void unsetStoragePolicy(String path) throws IOException {
+        try {
+            getFileSystem().unsetStoragePolicy(new Path(generateHdfsPath(path)));
+        } finally {
+            // 缓存的FileStatus中包含存储策略、纠删码标记
+            invalidateMetadata(path);
+        }
+    }
+
+    /**
+     * 获取目录或文件生效的存储策略（自身没有设置时为继承的策略）
+     *
+     * @param path HDFS的相对目录路径，比如：/archive
+     * @return java.lang.String 存储策略名称
+     * @author decre
+     * @since 1.0.0
+     */
+    public String getStoragePolicy(String path) throws IOException {
+        BlockStoragePolicySpi policy = getFileSystem().getStoragePolicy(new Path(generateHdfsPath(path)));
+        return policy == null ? null : policy.getName();
+    }
+
+    /**
+     * 集群支持的所有存储策略
+     *
+     * @return java.util.List 存储策略名称
+     * @author decre
+     * @since 1.0.0
+     */
+    public List<String> listStoragePolicies() throws IOException {
+        List<String> result = new ArrayList<>();
+        for (BlockStoragePolicySpi policy : getFileSystem().getAllStoragePolicies()) {
+            result.add(policy.getName());
+        }
+        return result;
+    }
+
+    /**
+     * 设置目录的纠删码策略，比如：RS-6-3-1024k、RS-3-2-1024k、XOR-2-1-1024k，之后在该目录下新建的文件使用纠删码存储
+     * <p>已有的文件不会转换，参考HdfsAgeBasedMover#convertToErasureCoding；策略需要先在集群中启用</p>
+     *
+     * @param path     HDFS的相对目录路径，比如：/archive
+     * @param ecPolicy 纠删码策略名称
+     * @author decre
+     * @since 1.0.0
+     */
+    public void setErasureCodingPolicy(String path, String ecPolicy) throws IOException {
+        try {
+            getDistributedFileSystem().setErasureCodingPolicy(new Path(generateHdfsPath(path)), ecPolicy);
+        } finally {
+            // 缓存的FileStatus中包含存储策略、纠删码标记
+            invalidateMetadata(path);
+        }
+    }
+
+    /**
+     * 取消目录上设置的纠删码策略
+     *
+     * @param path HDFS的相对目录路径，比如：/archive
+     * @author decre
+     * @since 1.0.0
+     */
+    public void unsetErasureCodingPolicy(String path) throws IOException {
+        try {
+            getDistributedFileSystem().unsetErasureCodingPolicy(new Path(generateHdfsPath(path)));
+        } finally {
+            // 缓存的FileStatus中包含存储策略、纠删码标记
+            invalidateMetadata(path);
+        }
+    }
+
+    /**
+     * 获取目录或文件的纠删码策略
+     *
+     * @param path HDFS的相对目录路径，比如：/archive/a.txt
+     * @return java.lang.String 纠删码策略名称，使用副本存储时返回null
+     * @author decre
+     * @since 1.0.0
+     */
+    public String getErasureCodingPolicy(String path) throws IOException {
+        ErasureCodingPolicy policy = getDistributedFileSystem().getErasureCodingPolicy(new Path(generateHdfsPath(path)));
+        return policy == null ? null : policy.getName();
+    }
+
+    /**
+     * 集群中所有的纠删码策略及其状态
+     *
+     * @return java.util.Map 策略名称 -> 状态（ENABLED、DISABLED、REMOVED）
+     * @author decre
+     * @since 1.0.0
+     */
+    public Map<String, String> listErasureCodingPolicies() throws IOException {
+        Map<String, String> result = new TreeMap<>();
+        for (ErasureCodingPolicyInfo info : getDistributedFileSystem().getAllErasureCodingPolicies()) {
+            result.put(info.getPolicy().getName(), info.getState().name());
+        }
+        return result;
+    }
+
+    /**
+     * 在集群中启用纠删码策略，需要超级用户权限
+     *
+     * @param ecPolicy 纠删码策略名称，比如：RS-3-2-1024k
+     * @author decre
+     * @since 1.0.0
+     */
+    public void enableErasureCodingPolicy(String ecPolicy) throws IOException {
+        getDistributedFileSystem().enableErasureCodingPolicy(ecPolicy);
+    }
+
+    /**
+     * 获取DistributedFileSystem，纠删码等HDFS特有的操作需要使用
+     *
+     * @return org.apache.hadoop.hdfs.DistributedFileSystem
+     */
+    public DistributedFileSystem getDistributedFileSystem() throws IOException {
+        FileSystem fileSystem = getFileSystem();
+        if (!(fileSystem instanceof DistributedFileSystem)) {
+            throw new UnsupportedOperationException("只支持HDFS，当前文件系统：" + fileSystem.getUri());
+        }
+        return (DistributedFileSystem) fileSystem;
+    }
+
+    /**
+     * 打开HDFS文件，记录打开的延迟，返回的流会统计读取字节数和打开流数量；打开失败时按重试策略重试
+     * <p>HdfsBulkTransfer、HdfsParallelReader等直接使用FileSystem的组件通过该方法打开文件，与HdfsService共用指标。</p>
+     *
+     * @param operation  操作名称
+     * @param hdfsPath   HDFS文件路径
+     * @param bufferSize 缓冲区大小，小于0时使用默认值
+     * @return FSDataInputStream
+     */
+    public FSDataInputStream openStream(String operation, Path hdfsPath, int bufferSize) throws IOException {
+        HdfsMetrics.Timer timer = metrics.start(operation);
+        try {
+            FileSystem fileSystem = getFileSystem();
+            FSDataInputStream in = retryPolicy.execute(operation,
+                    () -> bufferSize < 0 ? fileSystem.open(hdfsPath) : fileSystem.open(hdfsPath, bufferSize));
+            return MeteredInputStream.wrap(in, metrics);
+        } catch (IOException | RuntimeException e) {
+            timer.fail();
+            throw e;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * 执行一次操作并记录延迟，抛出异常时记为失败；不重试，非幂等的操作（create、rename等）也可以使用
+     *
+     * @param operation 操作名称，比如：delete
+     * @param callable  操作
+     * @return 操作的返回值
+     */
+    public <T> T timed(String operation, HdfsRetryPolicy.IoCallable<T> callable) throws IOException {
+        HdfsMetrics.Timer timer = metrics.start(operation);
+        try {
+            return callable.call();
+        } catch (IOException | RuntimeException e) {
+            timer.fail();
+            throw e;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private static long localFileLength(String localFile) {
+        File file = new File(localFile);
+        return file.isFile() ? file.length() : 0;
+    }
+
     /**
      * 将相对路径转化为HDFS文件路径
      *
@@ -423,7 +1581,7 @@ public class HdfsService {
      * @author decre
      * @since 1.0.0
      */
-    private String generateHdfsPath(String dstPath) {
+    public String generateHdfsPath(String dstPath) {
         String hdfsPath = defaultHdfsUri;
         if (dstPath.startsWith("/")) {
             hdfsPath += dstPath;
@@ -434,17 +1592,4 @@ public class HdfsService {
         return hdfsPath;
     }
 
-    /**
-     * close方法
-     */
-    private void close(FileSystem fileSystem) {
-        if (fileSystem != null) {
-            try {
-                fileSystem.close();
-            } catch (IOException e) {
-                logger.error(e.getMessage());
-            }
-        }
-    }
-
 }
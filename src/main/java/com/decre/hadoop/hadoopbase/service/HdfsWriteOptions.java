@@ -0,0 +1,99 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import org.apache.hadoop.util.DataChecksum;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 19:00
+ * @since 1.0.0
+ * Descirption: 写HDFS文件时的参数，未设置的参数使用集群默认值
+ */
+public class HdfsWriteOptions {
+
+    /**
+     * 压缩格式，比如：gzip、bzip2、lz4、snappy、zstd，为null时不压缩
+     */
+    private String codec;
+
+    /**
+     * 是否覆盖已存在的文件
+     */
+    private boolean overwrite = true;
+
+    private Integer bufferSize;
+
+    private Short replication;
+
+    private Long blockSize;
+
+    private DataChecksum.Type checksumType;
+
+    private Integer bytesPerChecksum;
+
+    public static HdfsWriteOptions defaults() {
+        return new HdfsWriteOptions();
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public HdfsWriteOptions setCodec(String codec) {
+        this.codec = codec;
+        return this;
+    }
+
+    public boolean isOverwrite() {
+        return overwrite;
+    }
+
+    public HdfsWriteOptions setOverwrite(boolean overwrite) {
+        this.overwrite = overwrite;
+        return this;
+    }
+
+    public Integer getBufferSize() {
+        return bufferSize;
+    }
+
+    public HdfsWriteOptions setBufferSize(Integer bufferSize) {
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    public Short getReplication() {
+        return replication;
+    }
+
+    public HdfsWriteOptions setReplication(Short replication) {
+        this.replication = replication;
+        return this;
+    }
+
+    public Long getBlockSize() {
+        return blockSize;
+    }
+
+    public HdfsWriteOptions setBlockSize(Long blockSize) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    public DataChecksum.Type getChecksumType() {
+        return checksumType;
+    }
+
+    public HdfsWriteOptions setChecksumType(DataChecksum.Type checksumType) {
+        this.checksumType = checksumType;
+        return this;
+    }
+
+    public Integer getBytesPerChecksum() {
+        return bytesPerChecksum;
+    }
+
+    public HdfsWriteOptions setBytesPerChecksum(Integer bytesPerChecksum) {
+        this.bytesPerChecksum = bytesPerChecksum;
+        return this;
+    }
+}
@@ -0,0 +1,271 @@
+package com.decre.hadoop.hadoopbase.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 20:00
+ * @since 1.0.0
+ * Descirption: 小文件打包容器
+ * <p>容器是HDFS上的一个目录，每次追加的一批小文件写成一个MapFile（part-00000、part-00001……），
+ * key为原始路径，value为文件内容，使用BLOCK压缩。MapFile自带索引，按key查找只需要二分索引再读取一个压缩块。
+ * 同一个key在多个批次中出现时，以最新的批次为准。</p>
+ * <p>每个part的data文件就是普通的SequenceFile，MapReduce任务可以用SequenceFileInputFormat直接读取，避免一个小文件一个split。</p>
+ */
+public class SmallFileContainer implements Closeable {
+
+    private static final String PART_PREFIX = "part-";
+
+    /**
+     * 正在写入的批次先写到临时名称，关闭成功后再重命名为part-NNNNN；以_开头，MapReduce的输入格式会忽略它
+     */
+    private static final String TEMP_PART_PREFIX = "_tmp-" + PART_PREFIX;
+
+    private Logger logger = LoggerFactory.getLogger(SmallFileContainer.class);
+
+    private final HdfsService hdfsService;
+
+    private final Configuration conf;
+
+    private final FileSystem fileSystem;
+
+    /**
+     * 容器的HDFS相对路径，比如：/packed/logs
+     */
+    private final String path;
+
+    private final Path containerPath;
+
+    /**
+     * 已打开的各批次Reader，按批次从旧到新排列
+     */
+    private List<MapFile.Reader> readers;
+
+    public SmallFileContainer(HdfsService hdfsService, String path) throws IOException {
+        this.hdfsService = hdfsService;
+        this.conf = hdfsService.getConf();
+        this.fileSystem = hdfsService.getFileSystem();
+        this.path = path;
+        this.containerPath = new Path(hdfsService.generateHdfsPath(path));
+    }
+
+    /**
+     * 追加一批本地小文件，key为传入的本地文件路径
+     *
+     * @param localFiles 本地文件路径，比如：D:/test.txt
+     * @return int 写入的文件数量
+     */
+    public int appendLocalFiles(List<String> localFiles) throws IOException {
+        Map<String, String> entries = new TreeMap<>();
+        for (String localFile : localFiles) {
+            entries.put(localFile, localFile);
+        }
+        return appendEntries(entries);
+    }
+
+    /**
+     * 追加一个本地目录（包含子目录）下的所有文件，key为相对于该目录的路径，比如：2019/04/a.txt
+     *
+     * @param localDir 本地目录，比如：D:/input
+     * @return int 写入的文件数量
+     */
+    public int appendLocalDirectory(String localDir) throws IOException {
+        java.nio.file.Path root = Paths.get(localDir);
+        Map<String, String> entries = new TreeMap<>();
+        try (Stream<java.nio.file.Path> stream = Files.walk(root)) {
+            for (java.nio.file.Path file : stream.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                entries.put(root.relativize(file).toString().replace(File.separatorChar, '/'), file.toString());
+            }
+        }
+        return appendEntries(entries);
+    }
+
+    /**
+     * 按key查找文件内容
+     *
+     * @param key 原始路径
+     * @return byte[] 不存在时返回null
+     */
+    public synchronized byte[] get(String key) throws IOException {
+        Text textKey = new Text(key);
+        BytesWritable value = new BytesWritable();
+        List<MapFile.Reader> partReaders = getReaders();
+        // 从最新的批次开始查找
+        for (int i = partReaders.size() - 1; i >= 0; i--) {
+            if (partReaders.get(i).get(textKey, value) != null) {
+                return value.copyBytes();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按批次顺序遍历容器中的所有文件，不需要解包；被新批次覆盖的旧记录也会遍历到
+     *
+     * @param consumer 回调，value在回调返回后会被复用
+     * @return long 遍历的记录数
+     */
+    public synchronized long forEach(EntryConsumer consumer) throws IOException {
+        long count = 0;
+        Text key = new Text();
+        BytesWritable value = new BytesWritable();
+        for (Path part : listParts()) {
+            try (MapFile.Reader reader = new MapFile.Reader(part, conf)) {
+                while (reader.next(key, value)) {
+                    consumer.accept(key.toString(), value.getBytes(), value.getLength());
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 容器中的所有批次，按批次序号从旧到新排列（序号超过5位时按字符串排序会乱序，所以按数值排序）
+     */
+    public List<Path> listParts() throws IOException {
+        if (!fileSystem.exists(containerPath)) {
+            return new ArrayList<>();
+        }
+        FileStatus[] statuses = fileSystem.listStatus(containerPath, p -> partIndex(p) >= 0);
+        return Arrays.stream(statuses)
+                .filter(FileStatus::isDirectory)
+                .map(FileStatus::getPath)
+                .sorted(Comparator.comparingLong(SmallFileContainer::partIndex))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 批次目录名中的序号，不是part-NNNNN格式时返回-1
+     */
+    private static long partIndex(Path part) {
+        String name = part.getName();
+        if (!name.startsWith(PART_PREFIX) || name.length() == PART_PREFIX.length()) {
+            return -1;
+        }
+        for (int i = PART_PREFIX.length(); i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return -1;
+            }
+        }
+        return Long.parseLong(name.substring(PART_PREFIX.length()));
+    }
+
+    @Override
+    public synchronized void close() {
+        closeReaders();
+    }
+
+    /**
+     * 将一批 key -> 本地文件 写成一个新的MapFile，MapFile要求key有序，所以使用TreeMap
+     * <p>先写到临时目录，关闭成功后再重命名为新的part，读取本地文件或者写入失败时删除临时目录，不会留下只有部分记录的批次</p>
+     */
+    private synchronized int appendEntries(Map<String, String> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        List<Path> parts = listParts();
+        long nextIndex = parts.isEmpty() ? 0 : partIndex(parts.get(parts.size() - 1)) + 1;
+        Path part = new Path(containerPath, String.format("%s%05d", PART_PREFIX, nextIndex));
+        Path tempPart = new Path(containerPath, String.format("%s%05d", TEMP_PART_PREFIX, nextIndex));
+
+        Text key = new Text();
+        BytesWritable value = new BytesWritable();
+        boolean committed = false;
+        try {
+            // 上次异常退出时遗留的临时目录
+            fileSystem.delete(tempPart, true);
+            try (MapFile.Writer writer = new MapFile.Writer(conf, tempPart,
+                    MapFile.Writer.keyClass(Text.class),
+                    MapFile.Writer.valueClass(BytesWritable.class),
+                    MapFile.Writer.compression(SequenceFile.CompressionType.BLOCK, new DefaultCodec()))) {
+                for (Map.Entry<String, String> entry : entries.entrySet()) {
+                    byte[] content = Files.readAllBytes(Paths.get(entry.getValue()));
+                    key.set(entry.getKey());
+                    value.set(content, 0, content.length);
+                    writer.append(key, value);
+                }
+            }
+            if (!fileSystem.rename(tempPart, part)) {
+                throw new IOException("小文件批次重命名失败，src:" + tempPart + "，dst:" + part);
+            }
+            committed = true;
+        } finally {
+            if (!committed) {
+                try {
+                    fileSystem.delete(tempPart, true);
+                } catch (IOException e) {
+                    logger.warn("删除未完成的小文件批次失败，path:{}", tempPart, e);
+                }
+            }
+            hdfsService.invalidateMetadata(path);
+        }
+        logger.info("小文件打包完成，part:{}，文件数量:{}", part, entries.size());
+        // 新增批次后重新打开Reader
+        closeReaders();
+        return entries.size();
+    }
+
+    private List<MapFile.Reader> getReaders() throws IOException {
+        if (readers == null) {
+            List<MapFile.Reader> opened = new ArrayList<>();
+            try {
+                for (Path part : listParts()) {
+                    opened.add(new MapFile.Reader(part, conf));
+                }
+            } catch (IOException e) {
+                for (MapFile.Reader reader : opened) {
+                    reader.close();
+                }
+                throw e;
+            }
+            readers = opened;
+        }
+        return readers;
+    }
+
+    private void closeReaders() {
+        if (readers != null) {
+            for (MapFile.Reader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    logger.error(e.getMessage());
+                }
+            }
+            readers = null;
+        }
+    }
+
+    /**
+     * 遍历容器时接收每一条记录
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(String key, byte[] content, int length) throws IOException;
+    }
+}
@@ -0,0 +1,129 @@
+package com.decre.hadoop.hadoopbase.service.batch;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 17:00
+ * @since 1.0.0
+ * Descirption: 批量操作的结果，按输入顺序保存每个路径的执行结果
+ */
+public class BatchResult<T> {
+
+    private final List<Outcome<T>> outcomes;
+
+    private final long elapsedMillis;
+
+    public BatchResult(List<Outcome<T>> outcomes, long elapsedMillis) {
+        this.outcomes = Collections.unmodifiableList(outcomes);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<Outcome<T>> getOutcomes() {
+        return outcomes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getSucceededCount() {
+        return count(Status.SUCCEEDED);
+    }
+
+    public long getFailedCount() {
+        return count(Status.FAILED);
+    }
+
+    public long getSkippedCount() {
+        return count(Status.SKIPPED);
+    }
+
+    public boolean isSuccess() {
+        return getSucceededCount() == outcomes.size();
+    }
+
+    private long count(Status status) {
+        return outcomes.stream().filter(o -> o.getStatus() == status).count();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "total=" + outcomes.size() +
+                ", succeeded=" + getSucceededCount() +
+                ", failed=" + getFailedCount() +
+                ", skipped=" + getSkippedCount() +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+
+    /**
+     * 单个路径的执行状态
+     */
+    public enum Status {
+        /**
+         * 执行成功
+         */
+        SUCCEEDED,
+        /**
+         * 执行失败
+         */
+        FAILED,
+        /**
+         * 遇到错误提前结束，未执行
+         */
+        SKIPPED
+    }
+
+    /**
+     * 单个路径的执行结果
+     */
+    public static class Outcome<T> {
+
+        private final String path;
+
+        private final Status status;
+
+        private final T value;
+
+        private final Exception exception;
+
+        public Outcome(String path, Status status, T value, Exception exception) {
+            this.path = path;
+            this.status = status;
+            this.value = value;
+            this.exception = exception;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * 操作的返回值，比如delete、rename、mkdirs、exists的返回值
+         */
+        public T getValue() {
+            return value;
+        }
+
+        public Exception getException() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return "Outcome{" +
+                    "path='" + path + '\'' +
+                    ", status=" + status +
+                    ", value=" + value +
+                    ", exception=" + exception +
+                    '}';
+        }
+    }
+}
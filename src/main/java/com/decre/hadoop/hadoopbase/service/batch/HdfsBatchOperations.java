@@ -0,0 +1,212 @@
+package com.decre.hadoop.hadoopbase.service.batch;
+
+import com.decre.hadoop.hadoopbase.service.BoundedExecutors;
+import com.decre.hadoop.hadoopbase.service.HdfsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 17:00
+ * @since 1.0.0
+ * Descirption: HDFS批量命名空间操作（delete、rename、mkdir、exists）
+ * <p>以固定的并行度向NameNode发起请求，返回每个路径的执行结果；stopOnError为true时，出现第一个错误后尚未开始的路径不再执行。</p>
+ * <p>线程池关闭或者等待被中断时，还没有完成的路径记为FAILED，返回的结果中每个路径都有对应的Outcome。</p>
+ */
+public class HdfsBatchOperations implements Closeable {
+
+    private Logger logger = LoggerFactory.getLogger(HdfsBatchOperations.class);
+
+    private final HdfsService hdfsService;
+
+    private final ThreadPoolExecutor executor;
+
+    public HdfsBatchOperations(HdfsService hdfsService, int parallelism) {
+        this.hdfsService = hdfsService;
+        this.executor = BoundedExecutors.newExecutor("hdfs-batch", parallelism);
+    }
+
+    /**
+     * 批量删除HDFS文件或目录（递归删除）
+     *
+     * @param paths       HDFS的相对目录路径，比如：/testDir/c.txt
+     * @param stopOnError 出错后是否停止执行剩余路径
+     * @return BatchResult 每个路径的delete返回值
+     */
+    public BatchResult<Boolean> deleteAll(Collection<String> paths, boolean stopOnError) {
+        return execute(new ArrayList<>(paths), stopOnError, hdfsService::deleteChecked);
+    }
+
+    /**
+     * 批量创建HDFS目录
+     *
+     * @param paths       HDFS的相对目录路径，比如：/testDir
+     * @param stopOnError 出错后是否停止执行剩余路径
+     * @return BatchResult 每个路径的mkdirs返回值
+     */
+    public BatchResult<Boolean> mkdirAll(Collection<String> paths, boolean stopOnError) {
+        return execute(new ArrayList<>(paths), stopOnError, hdfsService::mkdirChecked);
+    }
+
+    /**
+     * 批量判断文件或者目录是否存在
+     *
+     * @param paths       HDFS的相对目录路径，比如：/testDir/a.txt
+     * @param stopOnError 出错后是否停止执行剩余路径
+     * @return BatchResult 每个路径是否存在
+     */
+    public BatchResult<Boolean> existsAll(Collection<String> paths, boolean stopOnError) {
+        return execute(new ArrayList<>(paths), stopOnError, hdfsService::existsChecked);
+    }
+
+    /**
+     * 批量重命名
+     *
+     * @param renames     重命名之前的路径 -> 重命名之后的路径，比如：/testDir/b.txt -> /testDir/b_new.txt
+     * @param stopOnError 出错后是否停止执行剩余路径
+     * @return BatchResult 每个源路径的rename返回值
+     */
+    public BatchResult<Boolean> renameAll(Map<String, String> renames, boolean stopOnError) {
+        return execute(new ArrayList<>(renames.keySet()), stopOnError, src -> hdfsService.renameChecked(src, renames.get(src)));
+    }
+
+    /**
+     * 关闭线程池，由Spring容器关闭时调用；等待正在执行的路径完成，超时后未执行的路径记为失败
+     */
+    @Override
+    public void close() {
+        BoundedExecutors.shutdown(executor);
+    }
+
+    /**
+     * 并行执行所有路径；每个路径调用HdfsService的同名操作，与单个调用一样使用元数据缓存、重试策略并记录监控指标
+     */
+    private <T> BatchResult<T> execute(List<String> paths, boolean stopOnError, PathOperation<T> operation) {
+        if (executor.isShutdown()) {
+            throw new IllegalStateException("HdfsBatchOperations已关闭");
+        }
+        long start = System.currentTimeMillis();
+        Batch<T> batch = new Batch<>(paths.size(), stopOnError);
+
+        List<PathRunnable<T>> runnables = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            PathRunnable<T> runnable = new PathRunnable<>(i, paths.get(i), operation, batch);
+            runnables.add(runnable);
+            executor.execute(runnable);
+        }
+
+        Exception unfinished = null;
+        try {
+            if (!BoundedExecutors.await(batch.latch, executor)) {
+                logger.error("HdfsBatchOperations已关闭，未执行的路径记为失败");
+                unfinished = new CancellationException("HdfsBatchOperations已关闭，路径未执行");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("等待HDFS批量操作完成时被中断，未完成的路径记为失败", e);
+            unfinished = e;
+        }
+        if (unfinished != null) {
+            for (PathRunnable<T> runnable : runnables) {
+                runnable.finish(BatchResult.Status.FAILED, null, unfinished);
+            }
+        }
+
+        List<BatchResult.Outcome<T>> outcomes = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            outcomes.add(batch.outcomes.get(i));
+        }
+        return new BatchResult<>(outcomes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 一次批量操作的共享状态；每个路径的结果只记录一次，先完成的一方（执行线程或者取消）生效
+     */
+    private static class Batch<T> {
+
+        private final AtomicReferenceArray<BatchResult.Outcome<T>> outcomes;
+
+        private final CountDownLatch latch;
+
+        private final boolean stopOnError;
+
+        private final AtomicBoolean aborted = new AtomicBoolean(false);
+
+        private Batch(int total, boolean stopOnError) {
+            this.outcomes = new AtomicReferenceArray<>(total);
+            this.latch = new CountDownLatch(total);
+            this.stopOnError = stopOnError;
+        }
+    }
+
+    /**
+     * 单个路径的任务，线程池关闭时没有执行的任务通过cancel记为失败
+     */
+    private class PathRunnable<T> implements BoundedExecutors.CancellableTask {
+
+        private final int index;
+
+        private final String path;
+
+        private final PathOperation<T> operation;
+
+        private final Batch<T> batch;
+
+        private PathRunnable(int index, String path, PathOperation<T> operation, Batch<T> batch) {
+            this.index = index;
+            this.path = path;
+            this.operation = operation;
+            this.batch = batch;
+        }
+
+        @Override
+        public void run() {
+            if (batch.aborted.get()) {
+                finish(BatchResult.Status.SKIPPED, null, null);
+                return;
+            }
+            try {
+                T value = operation.apply(path);
+                finish(BatchResult.Status.SUCCEEDED, value, null);
+            } catch (Exception e) {
+                logger.error(MessageFormat.format("HDFS批量操作失败，path:{0}", path), e);
+                if (batch.stopOnError) {
+                    batch.aborted.set(true);
+                }
+                finish(BatchResult.Status.FAILED, null, e);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            finish(BatchResult.Status.FAILED, null, new CancellationException("HdfsBatchOperations已关闭，路径未执行"));
+        }
+
+        private void finish(BatchResult.Status status, T value, Exception exception) {
+            if (batch.outcomes.compareAndSet(index, null, new BatchResult.Outcome<>(path, status, value, exception))) {
+                batch.latch.countDown();
+            }
+        }
+    }
+
+    /**
+     * 对单个路径执行的操作
+     */
+    @FunctionalInterface
+    private interface PathOperation<T> {
+        T apply(String path) throws IOException;
+    }
+}
@@ -0,0 +1,220 @@
+package com.decre.hadoop.hadoopbase.service.json;
+
+import com.alibaba.fastjson.JSON;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 14:00
+ * @since 1.0.0
+ * Descirption: 从输入流中逐条解析JSON对象
+ * <p>支持两种格式：每行一个JSON对象（JSON Lines），或者最外层为JSON数组。
+ * 根据第一个非空白字符自动判断，'['为数组格式，否则为JSON Lines。</p>
+ * <p>每次只在内存中保留一条记录的文本，内存占用与文件大小无关。</p>
+ * <p>JSON的null元素（比如数组中的null或者一行null）作为null返回，不会被跳过。</p>
+ */
+public class JsonRecordIterator<T> implements Iterator<T>, Closeable {
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+
+    private final Class<T> clazz;
+
+    private final char[] buffer = new char[8192];
+
+    private int position = 0;
+
+    private int limit = 0;
+
+    /**
+     * 当前记录的文本，每条记录复用
+     */
+    private final StringBuilder record = new StringBuilder();
+
+    private boolean arrayMode;
+
+    private boolean finished = false;
+
+    /**
+     * 已经解析、还没有被next取走的记录，JSON的null元素解析为null，所以另外用nextReady标记
+     */
+    private T next;
+
+    private boolean nextReady = false;
+
+    public JsonRecordIterator(InputStream inputStream, Class<T> clazz) throws IOException {
+        this.reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+        this.clazz = clazz;
+
+        int first = skipWhitespace();
+        if (first == '\uFEFF') {
+            position++;
+            first = skipWhitespace();
+        }
+        if (first == EOF) {
+            finished = true;
+        } else if (first == '[') {
+            arrayMode = true;
+            position++;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextReady) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            String text = arrayMode ? readArrayElement() : readLine();
+            if (text == null) {
+                finished = true;
+                return false;
+            }
+            next = JSON.parseObject(text, clazz);
+            nextReady = true;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        nextReady = false;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        reader.close();
+    }
+
+    /**
+     * 读取下一行非空文本（JSON Lines格式）
+     */
+    private String readLine() throws IOException {
+        while (true) {
+            record.setLength(0);
+            int c;
+            while ((c = read()) != EOF && c != '\n') {
+                if (c != '\r') {
+                    record.append((char) c);
+                }
+            }
+            if (!isBlank(record)) {
+                return record.toString();
+            }
+            if (c == EOF) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 读取数组中的下一个元素（数组格式），按括号深度以及字符串转义判断元素边界
+     */
+    private String readArrayElement() throws IOException {
+        int c = skipWhitespace();
+        if (c == ',') {
+            position++;
+            c = skipWhitespace();
+        }
+        if (c == EOF) {
+            throw new IOException("JSON数组未正常结束");
+        }
+        if (c == ']') {
+            position++;
+            return null;
+        }
+
+        record.setLength(0);
+        int depth = 0;
+        boolean inString = false;
+        boolean escape = false;
+        while ((c = peek()) != EOF) {
+            if (inString) {
+                if (escape) {
+                    escape = false;
+                } else if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (depth == 0) {
+                    // 最外层数组结束，交给下一次调用处理
+                    break;
+                }
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                break;
+            }
+            record.append((char) c);
+            position++;
+        }
+        if (depth != 0 || inString) {
+            throw new IOException("JSON数组元素不完整");
+        }
+        return record.toString();
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != EOF && Character.isWhitespace(c)) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position >= limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != EOF) {
+            position++;
+        }
+        return c;
+    }
+
+    private static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,265 @@
+package com.decre.hadoop.hadoopbase.service.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 23:00
+ * @since 1.0.0
+ * Descirption: HdfsMetrics的默认内存实现，同时作为JMX视图
+ * <p>延迟使用对数分桶的直方图记录（每个2的幂区间分8个桶，误差不超过12.5%），记录时只做几次原子加，不需要加锁，
+ * 也不保存原始样本，内存占用固定。</p>
+ */
+public class DefaultHdfsMetrics implements HdfsMetrics, HdfsMetricsMXBean, Closeable {
+
+    private Logger logger = LoggerFactory.getLogger(DefaultHdfsMetrics.class);
+
+    private final ConcurrentMap<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    private final LongAdder bytesRead = new LongAdder();
+
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private final AtomicLong activeStreams = new AtomicLong();
+
+    private ObjectName objectName;
+
+    @Override
+    public Timer start(String operation) {
+        OperationStats stats = operations.computeIfAbsent(operation, k -> new OperationStats());
+        return new OperationTimer(stats, System.nanoTime());
+    }
+
+    @Override
+    public void addBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    @Override
+    public void addBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    @Override
+    public void streamOpened() {
+        activeStreams.incrementAndGet();
+    }
+
+    @Override
+    public void streamClosed() {
+        activeStreams.decrementAndGet();
+    }
+
+    /**
+     * 获取某个操作的指标快照
+     *
+     * @param operation 操作名称，比如：open
+     * @return OperationSnapshot 没有调用过时返回null
+     */
+    public OperationSnapshot getOperation(String operation) {
+        OperationStats stats = operations.get(operation);
+        return stats == null ? null : stats.snapshot();
+    }
+
+    @Override
+    public Map<String, OperationSnapshot> getOperations() {
+        Map<String, OperationSnapshot> result = new TreeMap<>();
+        operations.forEach((name, stats) -> result.put(name, stats.snapshot()));
+        return result;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getActiveStreams() {
+        return activeStreams.get();
+    }
+
+    /**
+     * 清空调用次数、延迟以及读写字节数，打开的流数量不清空
+     */
+    @Override
+    public void reset() {
+        operations.clear();
+        bytesRead.reset();
+        bytesWritten.reset();
+    }
+
+    /**
+     * 注册到平台MBeanServer，同名MBean已存在时（比如同一个JVM中启动了多个Spring容器）只打印日志
+     *
+     * @param name ObjectName，比如：com.decre.hadoop.hadoopbase:type=HdfsMetrics
+     */
+    public synchronized void registerMBean(String name) {
+        try {
+            ObjectName candidate = new ObjectName(name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(candidate)) {
+                logger.warn("JMX MBean已存在，跳过注册，name:{}", name);
+                return;
+            }
+            server.registerMBean(this, candidate);
+            objectName = candidate;
+        } catch (JMException e) {
+            logger.error("注册JMX MBean失败，name:" + name, e);
+        }
+    }
+
+    /**
+     * 从MBeanServer注销，由Spring容器关闭时调用
+     */
+    @Override
+    public synchronized void close() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                logger.error(e.getMessage());
+            }
+            objectName = null;
+        }
+    }
+
+    private static class OperationTimer implements Timer {
+
+        private final OperationStats stats;
+
+        private final long startNanos;
+
+        private boolean failed;
+
+        private OperationTimer(OperationStats stats, long startNanos) {
+            this.stats = stats;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void fail() {
+            failed = true;
+        }
+
+        @Override
+        public void stop() {
+            stats.record(System.nanoTime() - startNanos, failed);
+        }
+    }
+
+    /**
+     * 单个操作的计数和延迟直方图
+     */
+    private static class OperationStats {
+
+        /**
+         * 每个2的幂区间的桶数为 2^SUB_BUCKET_BITS
+         */
+        private static final int SUB_BUCKET_BITS = 3;
+
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LongAdder totalMicros = new LongAdder();
+
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos, boolean failed) {
+            long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+            count.increment();
+            if (failed) {
+                errors.increment();
+            }
+            totalMicros.add(micros);
+            buckets.incrementAndGet(bucketIndex(micros));
+            long max;
+            while (micros > (max = maxMicros.get()) && !maxMicros.compareAndSet(max, micros)) {
+                // 重试直到更新成功或者已有更大的值
+            }
+        }
+
+        OperationSnapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            long max = maxMicros.get();
+            double mean = total == 0 ? 0 : (double) totalMicros.sum() / count.sum();
+            return new OperationSnapshot(count.sum(), errors.sum(), mean,
+                    percentile(counts, total, 0.5, max),
+                    percentile(counts, total, 0.99, max),
+                    percentile(counts, total, 0.999, max),
+                    max);
+        }
+
+        /**
+         * 返回所在桶的上界（不超过最大值）
+         */
+        private static long percentile(long[] counts, long total, double quantile, long max) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * 小于SUB_BUCKETS的值每个值一个桶，其余按最高位所在的2的幂区间和其后SUB_BUCKET_BITS位分桶
+         */
+        static int bucketIndex(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BUCKET_BITS;
+            int mantissa = (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+            return (shift + 1) * SUB_BUCKETS + mantissa;
+        }
+
+        static long bucketUpperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long mantissa = index % SUB_BUCKETS;
+            long lower = (SUB_BUCKETS + mantissa) << shift;
+            return lower + (1L << shift) - 1;
+        }
+    }
+}
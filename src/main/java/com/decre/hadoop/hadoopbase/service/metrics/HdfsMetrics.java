@@ -0,0 +1,79 @@
+package com.decre.hadoop.hadoopbase.service.metrics;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 23:00
+ * @since 1.0.0
+ * Descirption: HdfsService的监控指标接口
+ * <p>默认实现为{@link DefaultHdfsMetrics}，需要接入Micrometer等监控系统时实现该接口即可。</p>
+ */
+public interface HdfsMetrics {
+
+    /**
+     * 不记录任何指标
+     */
+    HdfsMetrics NOOP = new HdfsMetrics() {
+        @Override
+        public Timer start(String operation) {
+            return Timer.NOOP;
+        }
+
+        @Override
+        public void addBytesRead(long bytes) {
+        }
+
+        @Override
+        public void addBytesWritten(long bytes) {
+        }
+
+        @Override
+        public void streamOpened() {
+        }
+
+        @Override
+        public void streamClosed() {
+        }
+    };
+
+    /**
+     * 开始记录一次操作，操作结束时必须调用{@link Timer#stop()}
+     *
+     * @param operation 操作名称，比如：mkdir、open
+     * @return Timer
+     */
+    Timer start(String operation);
+
+    void addBytesRead(long bytes);
+
+    void addBytesWritten(long bytes);
+
+    void streamOpened();
+
+    void streamClosed();
+
+    /**
+     * 一次操作的计时器
+     */
+    interface Timer {
+
+        Timer NOOP = new Timer() {
+            @Override
+            public void fail() {
+            }
+
+            @Override
+            public void stop() {
+            }
+        };
+
+        /**
+         * 标记本次操作失败
+         */
+        void fail();
+
+        /**
+         * 结束计时
+         */
+        void stop();
+    }
+}
@@ -0,0 +1,28 @@
+package com.decre.hadoop.hadoopbase.service.metrics;
+
+import java.util.Map;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 23:00
+ * @since 1.0.0
+ * Descirption: HdfsService监控指标的JMX视图
+ */
+public interface HdfsMetricsMXBean {
+
+    /**
+     * 每个操作的调用次数、错误次数以及延迟分位数
+     */
+    Map<String, OperationSnapshot> getOperations();
+
+    long getBytesRead();
+
+    long getBytesWritten();
+
+    long getActiveStreams();
+
+    /**
+     * 清空所有指标
+     */
+    void reset();
+}
@@ -0,0 +1,146 @@
+package com.decre.hadoop.hadoopbase.service.metrics;
+
+import org.apache.hadoop.fs.ByteBufferReadable;
+import org.apache.hadoop.fs.CanSetDropBehind;
+import org.apache.hadoop.fs.CanSetReadahead;
+import org.apache.hadoop.fs.CanUnbuffer;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.StreamCapabilities;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 23:00
+ * @since 1.0.0
+ * Descirption: 统计读取字节数和打开流数量的输入流
+ * <p>FSDataInputStream的read(byte[], int, int)是final方法，不能直接继承，所以在它的内层包装一次，
+ * 顺序读、positional read以及ByteBuffer读都会被统计。</p>
+ * <p>FSDataInputStream只有在内层流实现了对应接口时才支持unbuffer、setReadahead、setDropBehind和hasCapability，
+ * 所以这些接口都转发给原始流，包装后的流与原始流支持的能力一致（原始流不支持时同样抛出UnsupportedOperationException）。</p>
+ */
+public class MeteredInputStream extends FSInputStream
+        implements ByteBufferReadable, CanUnbuffer, CanSetReadahead, CanSetDropBehind, StreamCapabilities {
+
+    private final FSDataInputStream in;
+
+    private final HdfsMetrics metrics;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private MeteredInputStream(FSDataInputStream in, HdfsMetrics metrics) {
+        this.in = in;
+        this.metrics = metrics;
+        metrics.streamOpened();
+    }
+
+    /**
+     * 包装HDFS输入流，不记录指标时直接返回原始流
+     *
+     * @param in      原始输入流
+     * @param metrics HdfsMetrics
+     * @return FSDataInputStream
+     */
+    public static FSDataInputStream wrap(FSDataInputStream in, HdfsMetrics metrics) {
+        if (metrics == null || metrics == HdfsMetrics.NOOP) {
+            return in;
+        }
+        return new FSDataInputStream(new MeteredInputStream(in, metrics));
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            metrics.addBytesRead(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return count(in.read(b, off, len));
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        return count(in.read(position, buffer, offset, length));
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int offset, int length) throws IOException {
+        in.readFully(position, buffer, offset, length);
+        metrics.addBytesRead(length);
+    }
+
+    @Override
+    public int read(ByteBuffer buf) throws IOException {
+        return count(in.read(buf));
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        return in.skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return in.available();
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+        in.seek(pos);
+    }
+
+    @Override
+    public long getPos() throws IOException {
+        return in.getPos();
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPos) throws IOException {
+        return in.seekToNewSource(targetPos);
+    }
+
+    @Override
+    public void unbuffer() {
+        in.unbuffer();
+    }
+
+    @Override
+    public void setReadahead(Long readahead) throws IOException {
+        in.setReadahead(readahead);
+    }
+
+    @Override
+    public void setDropBehind(Boolean dropCache) throws IOException {
+        in.setDropBehind(dropCache);
+    }
+
+    @Override
+    public boolean hasCapability(String capability) {
+        return in.hasCapability(capability);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                in.close();
+            } finally {
+                metrics.streamClosed();
+            }
+        }
+    }
+
+    private int count(int read) {
+        if (read > 0) {
+            metrics.addBytesRead(read);
+        }
+        return read;
+    }
+}
@@ -0,0 +1,78 @@
+package com.decre.hadoop.hadoopbase.service.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 23:00
+ * @since 1.0.0
+ * Descirption: 某个操作的指标快照，延迟单位为微秒
+ */
+public class OperationSnapshot {
+
+    private final long count;
+
+    private final long errors;
+
+    private final double meanMicros;
+
+    private final long p50Micros;
+
+    private final long p99Micros;
+
+    private final long p999Micros;
+
+    private final long maxMicros;
+
+    @ConstructorProperties({"count", "errors", "meanMicros", "p50Micros", "p99Micros", "p999Micros", "maxMicros"})
+    public OperationSnapshot(long count, long errors, double meanMicros, long p50Micros, long p99Micros, long p999Micros, long maxMicros) {
+        this.count = count;
+        this.errors = errors;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getP999Micros() {
+        return p999Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "OperationSnapshot{" +
+                "count=" + count +
+                ", errors=" + errors +
+                ", meanMicros=" + String.format("%.1f", meanMicros) +
+                ", p50Micros=" + p50Micros +
+                ", p99Micros=" + p99Micros +
+                ", p999Micros=" + p999Micros +
+                ", maxMicros=" + maxMicros +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package com.decre.hadoop.hadoopbase.service.sequence;
+
+import org.apache.hadoop.io.Writable;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 3:00
+ * @since 1.0.0
+ * Descirption: Java对象与二进制格式之间的转换
+ * <p>实现类需要有无参构造方法；同一个实例会被反复用于读写，get()每次需要返回新的对象。</p>
+ */
+public interface RecordWritable<T> extends Writable {
+
+    void set(T value);
+
+    T get();
+}
@@ -0,0 +1,98 @@
+package com.decre.hadoop.hadoopbase.service.sequence;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.util.ReflectionUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 3:00
+ * @since 1.0.0
+ * Descirption: 从SequenceFile中逐条读取Java对象，与JsonRecordIterator用法一致
+ * <p>value的类型从文件头中读取，不需要调用方指定；读取过程中只复用一个RecordWritable实例。</p>
+ * <p>SequenceFile.Reader.next(key, value)在BLOCK压缩时直接从没有缓冲的解压流上反序列化，每读一个字节都要调用一次解压；
+ * 这里用nextRaw一次取出整条记录的原始字节，再从内存中反序列化。</p>
+ */
+public class SequenceRecordIterator<T> implements Iterator<T>, Closeable {
+
+    private final SequenceFile.Reader reader;
+
+    private final RecordWritable<T> value;
+
+    private final DataOutputBuffer rawKey = new DataOutputBuffer();
+
+    private final SequenceFile.ValueBytes rawValue;
+
+    private final DataOutputBuffer valueBytes = new DataOutputBuffer();
+
+    private final DataInputBuffer valueIn = new DataInputBuffer();
+
+    private boolean finished;
+
+    private T next;
+
+    @SuppressWarnings("unchecked")
+    public SequenceRecordIterator(Configuration conf, FSDataInputStream in, long length) throws IOException {
+        try {
+            this.reader = new SequenceFile.Reader(conf, SequenceFile.Reader.stream(in), SequenceFile.Reader.length(length));
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        if (!RecordWritable.class.isAssignableFrom(reader.getValueClass())) {
+            reader.close();
+            throw new IOException("SequenceFile的value类型不是RecordWritable：" + reader.getValueClassName());
+        }
+        this.value = (RecordWritable<T>) ReflectionUtils.newInstance(reader.getValueClass(), conf);
+        this.rawValue = reader.createValueBytes();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            rawKey.reset();
+            if (reader.nextRaw(rawKey, rawValue) < 0) {
+                finished = true;
+                return false;
+            }
+            valueBytes.reset();
+            rawValue.writeUncompressedBytes(valueBytes);
+            valueIn.reset(valueBytes.getData(), valueBytes.getLength());
+            value.readFields(valueIn);
+            next = value.get();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,84 @@
+package com.decre.hadoop.hadoopbase.service.sequence;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.util.ReflectionUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 3:00
+ * @since 1.0.0
+ * Descirption: 将Java对象写入SequenceFile，key为NullWritable，value为RecordWritable
+ * <p>使用BLOCK压缩：攒满io.seqfile.compress.blocksize（默认1MB）的记录后整体压缩，压缩率接近整个文件压缩，
+ * 同时保留同步标记，MapReduce可以按split并行读取。</p>
+ */
+public class SequenceRecordWriter<T> implements Closeable {
+
+    private final FSDataOutputStream out;
+
+    private final SequenceFile.Writer writer;
+
+    private final RecordWritable<T> value;
+
+    private long count;
+
+    /**
+     * @param conf       Configuration
+     * @param out        HDFS输出流，close时一起关闭
+     * @param valueClass RecordWritable的实现类
+     * @param codec      压缩格式，为null时不压缩
+     */
+    public SequenceRecordWriter(Configuration conf, FSDataOutputStream out, Class<? extends RecordWritable<T>> valueClass,
+                                CompressionCodec codec) throws IOException {
+        this.out = out;
+        this.value = ReflectionUtils.newInstance(valueClass, conf);
+        SequenceFile.Writer.Option compression = codec == null
+                ? SequenceFile.Writer.compression(SequenceFile.CompressionType.NONE)
+                : SequenceFile.Writer.compression(SequenceFile.CompressionType.BLOCK, codec);
+        try {
+            this.writer = SequenceFile.createWriter(conf,
+                    SequenceFile.Writer.stream(out),
+                    SequenceFile.Writer.keyClass(NullWritable.class),
+                    SequenceFile.Writer.valueClass(valueClass),
+                    compression);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    public void append(T record) throws IOException {
+        value.set(record);
+        writer.append(NullWritable.get(), value);
+        count++;
+    }
+
+    public void appendAll(Iterable<? extends T> records) throws IOException {
+        for (T record : records) {
+            append(record);
+        }
+    }
+
+    /**
+     * 已写入的记录数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // 使用外部传入的流时，writer.close()只刷出最后一个压缩块，不关闭流
+            writer.close();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.decre.hadoop.hadoopbase.service.sequence;
+
+import com.decre.common.entity.User;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 3:00
+ * @since 1.0.0
+ * Descirption: User的二进制格式
+ * <p>第一个字节是格式版本，之后是字段是否为null的位图（变长编码的int，最多32个字段），再依次写入非null的字段：
+ * 整数使用变长编码，字符串为变长长度加UTF-8，日期为毫秒数。</p>
+ * <p>字段顺序不能改变，新增字段只能追加在最后、占用位图中新的位，并把VERSION加一：新代码读取旧版本的记录时，
+ * 旧版本没有的字段为null；旧代码遇到更高的版本直接抛出异常，不会读错字段。</p>
+ */
+public class UserWritable implements RecordWritable<User> {
+
+    /**
+     * 当前的格式版本
+     */
+    private static final int VERSION = 1;
+
+    private static final int ID = 1;
+    private static final int USERNAME = 1 << 1;
+    private static final int PASSWORD = 1 << 2;
+    private static final int MOBILE = 1 << 3;
+    private static final int EMAIL = 1 << 4;
+    private static final int CREATE_TIME = 1 << 5;
+    private static final int UPDATE_TIME = 1 << 6;
+    private static final int STATUS = 1 << 7;
+
+    private User user;
+
+    /**
+     * 读取字符串时复用的缓冲区
+     */
+    private byte[] stringBuffer = new byte[64];
+
+    public UserWritable() {
+    }
+
+    public UserWritable(User user) {
+        this.user = user;
+    }
+
+    @Override
+    public void set(User value) {
+        this.user = value;
+    }
+
+    @Override
+    public User get() {
+        return user;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        int mask = (user.getId() != null ? ID : 0)
+                | (user.getUsername() != null ? USERNAME : 0)
+                | (user.getPassword() != null ? PASSWORD : 0)
+                | (user.getMobile() != null ? MOBILE : 0)
+                | (user.getEmail() != null ? EMAIL : 0)
+                | (user.getCreateTime() != null ? CREATE_TIME : 0)
+                | (user.getUpdateTime() != null ? UPDATE_TIME : 0)
+                | (user.getStatus() != null ? STATUS : 0);
+        out.writeByte(VERSION);
+        WritableUtils.writeVInt(out, mask);
+        if ((mask & ID) != 0) {
+            WritableUtils.writeVLong(out, user.getId());
+        }
+        if ((mask & USERNAME) != 0) {
+            Text.writeString(out, user.getUsername());
+        }
+        if ((mask & PASSWORD) != 0) {
+            Text.writeString(out, user.getPassword());
+        }
+        if ((mask & MOBILE) != 0) {
+            Text.writeString(out, user.getMobile());
+        }
+        if ((mask & EMAIL) != 0) {
+            Text.writeString(out, user.getEmail());
+        }
+        if ((mask & CREATE_TIME) != 0) {
+            WritableUtils.writeVLong(out, user.getCreateTime().getTime());
+        }
+        if ((mask & UPDATE_TIME) != 0) {
+            WritableUtils.writeVLong(out, user.getUpdateTime().getTime());
+        }
+        if ((mask & STATUS) != 0) {
+            WritableUtils.writeVInt(out, user.getStatus());
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        // 每条记录创建新的User，调用方可以直接持有get()返回的对象
+        User value = new User();
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("不支持的UserWritable格式版本：" + version + "，当前版本：" + VERSION);
+        }
+        int mask = WritableUtils.readVInt(in);
+        if ((mask & ID) != 0) {
+            value.setId(WritableUtils.readVLong(in));
+        }
+        if ((mask & USERNAME) != 0) {
+            value.setUsername(readString(in));
+        }
+        if ((mask & PASSWORD) != 0) {
+            value.setPassword(readString(in));
+        }
+        if ((mask & MOBILE) != 0) {
+            value.setMobile(readString(in));
+        }
+        if ((mask & EMAIL) != 0) {
+            value.setEmail(readString(in));
+        }
+        if ((mask & CREATE_TIME) != 0) {
+            value.setCreateTime(new Date(WritableUtils.readVLong(in)));
+        }
+        if ((mask & UPDATE_TIME) != 0) {
+            value.setUpdateTime(new Date(WritableUtils.readVLong(in)));
+        }
+        if ((mask & STATUS) != 0) {
+            value.setStatus(WritableUtils.readVInt(in));
+        }
+        this.user = value;
+    }
+
+    /**
+     * 与Text.readString的格式相同（变长长度加UTF-8），直接用String解码，比Text的CharsetDecoder快
+     */
+    private String readString(DataInput in) throws IOException {
+        int length = WritableUtils.readVInt(in);
+        if (length > stringBuffer.length) {
+            stringBuffer = new byte[Math.max(length, stringBuffer.length * 2)];
+        }
+        in.readFully(stringBuffer, 0, length);
+        return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+}
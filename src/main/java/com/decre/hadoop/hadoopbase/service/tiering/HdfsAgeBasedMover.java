@@ -0,0 +1,230 @@
+package com.decre.hadoop.hadoopbase.service.tiering;
+
+import com.decre.hadoop.hadoopbase.service.HdfsService;
+import com.decre.hadoop.hadoopbase.service.batch.BatchResult;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.BlockStoragePolicySpi;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Options;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
+import org.apache.hadoop.hdfs.protocol.BlockStoragePolicy;
+import org.apache.hadoop.hdfs.protocol.HdfsConstants;
+import org.apache.hadoop.hdfs.protocol.HdfsFileStatus;
+import org.apache.hadoop.hdfs.server.mover.Mover;
+import org.apache.hadoop.util.ToolRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 23:40
+ * @since 1.0.0
+ * Descirption: 按文件年龄分层存储
+ * <p>遍历目录，对修改时间早于阈值的文件设置目标存储策略（比如COLD），设置策略只修改NameNode元数据，
+ * 可选运行HDFS自带的Mover把已有的block迁移到策略要求的存储介质上；也可以把旧文件重写为纠删码文件，
+ * 以大约1.5倍的空间代替3副本。</p>
+ * <p>已经是目标策略的文件不会重复设置，多次执行是幂等的，适合定时调度。</p>
+ */
+public class HdfsAgeBasedMover {
+
+    private static final String EC_TEMP_DIR = ".ec-convert";
+
+    private Logger logger = LoggerFactory.getLogger(HdfsAgeBasedMover.class);
+
+    private final HdfsService hdfsService;
+
+    public HdfsAgeBasedMover(HdfsService hdfsService) {
+        this.hdfsService = hdfsService;
+    }
+
+    /**
+     * 对目录下修改时间早于阈值的文件设置存储策略
+     *
+     * @param path          HDFS的相对目录路径，比如：/logs
+     * @param olderThan     文件年龄阈值，单位毫秒，修改时间早于 当前时间-olderThan 的文件会被处理
+     * @param storagePolicy 目标存储策略，比如：COLD、WARM
+     * @param runMover      设置策略后是否运行Mover迁移block，为false时只修改元数据，由管理员另外执行 hdfs mover
+     * @return BatchResult 每个被处理文件的结果，value为原来的存储策略名称
+     */
+    public BatchResult<String> applyStoragePolicy(String path, long olderThan, String storagePolicy, boolean runMover) throws IOException {
+        long start = System.currentTimeMillis();
+        DistributedFileSystem fileSystem = hdfsService.getDistributedFileSystem();
+        Path root = fileSystem.makeQualified(new Path(hdfsService.generateHdfsPath(path)));
+        BlockStoragePolicy target = findStoragePolicy(fileSystem, storagePolicy);
+        long cutoff = start - olderThan;
+
+        List<BatchResult.Outcome<String>> outcomes = new ArrayList<>();
+        for (FileStatus status : listOldFiles(fileSystem, root, cutoff)) {
+            byte policyId = storagePolicyId(status);
+            if (policyId == target.getId()) {
+                continue;
+            }
+            String relative = relativePath(path, root, status.getPath());
+            try {
+                fileSystem.setStoragePolicy(status.getPath(), target.getName());
+                outcomes.add(new BatchResult.Outcome<>(relative, BatchResult.Status.SUCCEEDED, storagePolicyName(fileSystem, policyId), null));
+            } catch (IOException e) {
+                logger.error(MessageFormat.format("设置存储策略失败，path:{0}，storagePolicy:{1}", relative, storagePolicy), e);
+                outcomes.add(new BatchResult.Outcome<>(relative, BatchResult.Status.FAILED, null, e));
+            } finally {
+                hdfsService.invalidateMetadata(relative);
+            }
+        }
+
+        BatchResult<String> result = new BatchResult<>(outcomes, System.currentTimeMillis() - start);
+        logger.info("按年龄设置存储策略完成，path:{}，storagePolicy:{}，{}", path, storagePolicy, result);
+        if (runMover && result.getSucceededCount() > 0) {
+            runMover(root);
+        }
+        return result;
+    }
+
+    /**
+     * 把目录下修改时间早于阈值、仍使用副本存储的文件重写为纠删码文件
+     * <p>纠删码是文件创建时决定的，已有文件只能重写：先复制到设置了纠删码策略的临时目录，
+     * 确认原文件在复制期间没有变化后，覆盖重命名回原路径，保留原文件的权限、属主和修改时间。
+     * 正在被写入的文件会因为长度或修改时间变化而失败，不会丢数据。</p>
+     *
+     * @param path      HDFS的相对目录路径，比如：/logs
+     * @param olderThan 文件年龄阈值，单位毫秒
+     * @param ecPolicy  纠删码策略，需要已在集群中启用，比如：RS-6-3-1024k
+     * @return BatchResult 每个被处理文件的结果，value为转换后的纠删码策略名称
+     */
+    public BatchResult<String> convertToErasureCoding(String path, long olderThan, String ecPolicy) throws IOException {
+        long start = System.currentTimeMillis();
+        DistributedFileSystem fileSystem = hdfsService.getDistributedFileSystem();
+        Configuration configuration = fileSystem.getConf();
+        Path root = fileSystem.makeQualified(new Path(hdfsService.generateHdfsPath(path)));
+        Path tempDir = new Path(root, EC_TEMP_DIR);
+        List<FileStatus> candidates = listOldFiles(fileSystem, root, start - olderThan);
+
+        List<BatchResult.Outcome<String>> outcomes = new ArrayList<>();
+        if (candidates.stream().anyMatch(status -> !status.isErasureCoded())) {
+            fileSystem.mkdirs(tempDir);
+            fileSystem.setErasureCodingPolicy(tempDir, ecPolicy);
+        }
+        try {
+            int sequence = 0;
+            for (FileStatus status : candidates) {
+                if (status.isErasureCoded()) {
+                    continue;
+                }
+                String relative = relativePath(path, root, status.getPath());
+                Path tempFile = new Path(tempDir, (sequence++) + "-" + status.getPath().getName());
+                try {
+                    FileUtil.copy(fileSystem, status.getPath(), fileSystem, tempFile, false, true, configuration);
+                    FileStatus current = fileSystem.getFileStatus(status.getPath());
+                    if (current.getLen() != status.getLen() || current.getModificationTime() != status.getModificationTime()) {
+                        throw new IOException("文件在转换期间被修改：" + relative);
+                    }
+                    fileSystem.setPermission(tempFile, status.getPermission());
+                    fileSystem.setOwner(tempFile, status.getOwner(), status.getGroup());
+                    fileSystem.setTimes(tempFile, status.getModificationTime(), status.getAccessTime());
+                    fileSystem.rename(tempFile, status.getPath(), Options.Rename.OVERWRITE);
+                    outcomes.add(new BatchResult.Outcome<>(relative, BatchResult.Status.SUCCEEDED, ecPolicy, null));
+                } catch (IOException e) {
+                    logger.error(MessageFormat.format("转换纠删码失败，path:{0}，ecPolicy:{1}", relative, ecPolicy), e);
+                    fileSystem.delete(tempFile, false);
+                    outcomes.add(new BatchResult.Outcome<>(relative, BatchResult.Status.FAILED, null, e));
+                } finally {
+                    // 重命名覆盖后文件的inode、纠删码策略都变了
+                    hdfsService.invalidateMetadata(relative);
+                }
+            }
+        } finally {
+            fileSystem.delete(tempDir, true);
+            hdfsService.invalidateMetadata(relativePath(path, root, tempDir));
+        }
+
+        BatchResult<String> result = new BatchResult<>(outcomes, System.currentTimeMillis() - start);
+        logger.info("按年龄转换纠删码完成，path:{}，ecPolicy:{}，{}", path, ecPolicy, result);
+        return result;
+    }
+
+    /**
+     * 运行Mover，把目录下block所在的存储介质调整为存储策略要求的介质，直到没有需要迁移的block
+     *
+     * @param root 完整的HDFS路径
+     */
+    public void runMover(Path root) throws IOException {
+        long start = System.currentTimeMillis();
+        int exitCode;
+        try {
+            exitCode = ToolRunner.run(new Configuration(hdfsService.getFileSystem().getConf()), new Mover.Cli(), new String[]{"-p", root.toString()});
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("执行Mover失败，path:" + root, e);
+        }
+        if (exitCode != 0) {
+            throw new IOException("执行Mover失败，path:" + root + "，exitCode:" + exitCode);
+        }
+        logger.info("Mover执行完成，path:{}，耗时:{}ms", root, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 遍历目录，返回修改时间早于cutoff的文件，跳过纠删码转换使用的临时目录
+     */
+    private List<FileStatus> listOldFiles(DistributedFileSystem fileSystem, Path root, long cutoff) throws IOException {
+        List<FileStatus> result = new ArrayList<>();
+        Deque<Path> directories = new ArrayDeque<>();
+        directories.push(root);
+        while (!directories.isEmpty()) {
+            RemoteIterator<FileStatus> iterator = fileSystem.listStatusIterator(directories.pop());
+            while (iterator.hasNext()) {
+                FileStatus status = iterator.next();
+                if (status.isDirectory()) {
+                    if (!EC_TEMP_DIR.equals(status.getPath().getName())) {
+                        directories.push(status.getPath());
+                    }
+                } else if (status.getModificationTime() < cutoff) {
+                    result.add(status);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static BlockStoragePolicy findStoragePolicy(DistributedFileSystem fileSystem, String name) throws IOException {
+        for (BlockStoragePolicySpi policy : fileSystem.getAllStoragePolicies()) {
+            if (policy.getName().equalsIgnoreCase(name)) {
+                return (BlockStoragePolicy) policy;
+            }
+        }
+        throw new IllegalArgumentException("不存在的存储策略：" + name);
+    }
+
+    private static String storagePolicyName(DistributedFileSystem fileSystem, byte id) throws IOException {
+        if (id == HdfsConstants.BLOCK_STORAGE_POLICY_ID_UNSPECIFIED) {
+            return null;
+        }
+        for (BlockStoragePolicySpi policy : fileSystem.getAllStoragePolicies()) {
+            if (((BlockStoragePolicy) policy).getId() == id) {
+                return policy.getName();
+            }
+        }
+        return String.valueOf(id);
+    }
+
+    /**
+     * 文件自身设置的存储策略，未设置（继承上级目录）时为BLOCK_STORAGE_POLICY_ID_UNSPECIFIED
+     */
+    private static byte storagePolicyId(FileStatus status) {
+        return status instanceof HdfsFileStatus ? ((HdfsFileStatus) status).getStoragePolicy() : HdfsConstants.BLOCK_STORAGE_POLICY_ID_UNSPECIFIED;
+    }
+
+    private static String relativePath(String dir, Path root, Path file) {
+        String relative = root.toUri().relativize(file.toUri()).getPath();
+        return dir.endsWith("/") ? dir + relative : dir + "/" + relative;
+    }
+}
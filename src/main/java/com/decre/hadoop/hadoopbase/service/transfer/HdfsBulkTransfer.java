@@ -0,0 +1,366 @@
+package com.decre.hadoop.hadoopbase.service.transfer;
+
+import com.decre.hadoop.hadoopbase.service.BoundedExecutors;
+import com.decre.hadoop.hadoopbase.service.HdfsService;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 11:00
+ * @since 1.0.0
+ * Descirption: HDFS批量上传/下载
+ * <p>文件在固定大小的线程池中并行传输，任务队列有界，队列满时由提交线程自己执行任务，以此限制内存中等待的任务数量。</p>
+ * <p>每个文件与HdfsService的uploadFileToHdfs、downloadFileFromHdfs一样记录upload、download操作和读写字节数。</p>
+ */
+public class HdfsBulkTransfer implements Closeable {
+
+    private Logger logger = LoggerFactory.getLogger(HdfsBulkTransfer.class);
+
+    private final HdfsService hdfsService;
+
+    /**
+     * 单个文件复制时使用的缓冲区大小
+     */
+    private final int bufferSize;
+
+    private final ThreadPoolExecutor executor;
+
+    public HdfsBulkTransfer(HdfsService hdfsService, int parallelism, int bufferSize) {
+        this.hdfsService = hdfsService;
+        this.bufferSize = bufferSize;
+        this.executor = BoundedExecutors.newExecutor("hdfs-transfer", parallelism);
+    }
+
+    /**
+     * 批量上传本地文件至HDFS的同一个目录
+     *
+     * @param srcFiles  本地文件路径，比如：D:/test.txt
+     * @param dstPath   HDFS的相对目录路径，比如：/testDir
+     * @param overwrite 是否覆盖HDFS上面的文件
+     * @param listener  进度回调，可以为null
+     * @return TransferReport
+     */
+    public TransferReport uploadFiles(List<String> srcFiles, String dstPath, boolean overwrite, TransferListener listener) {
+        List<Task> tasks = new ArrayList<>(srcFiles.size());
+        for (String srcFile : srcFiles) {
+            String dstFile = hdfsService.generateHdfsPath(joinPath(dstPath, new File(srcFile).getName()));
+            tasks.add(new Task(srcFile, dstFile, true, overwrite));
+        }
+        return execute(tasks, listener);
+    }
+
+    /**
+     * 按 本地文件 -> HDFS文件 的对应关系批量上传
+     *
+     * @param files         本地文件路径 -> HDFS的相对文件路径，比如：D:/input/a.txt -> /testDir/a.txt
+     * @param overwrite     是否覆盖HDFS上面的文件
+     * @param preserveTimes 是否把HDFS文件的修改时间设置为本地文件的修改时间，用于之后的增量同步比较
+     * @param listener      进度回调，可以为null
+     * @return TransferReport
+     */
+    public TransferReport uploadFiles(Map<String, String> files, boolean overwrite, boolean preserveTimes, TransferListener listener) {
+        List<Task> tasks = new ArrayList<>(files.size());
+        for (Map.Entry<String, String> entry : files.entrySet()) {
+            Task task = new Task(entry.getKey(), hdfsService.generateHdfsPath(entry.getValue()), true, overwrite);
+            task.preserveTimes = preserveTimes;
+            tasks.add(task);
+        }
+        return execute(tasks, listener);
+    }
+
+    /**
+     * 上传本地目录（包含子目录）至HDFS，保留相对目录结构
+     *
+     * @param srcDir    本地目录，比如：D:/input
+     * @param dstPath   HDFS的相对目录路径，比如：/testDir
+     * @param overwrite 是否覆盖HDFS上面的文件
+     * @param listener  进度回调，可以为null
+     * @return TransferReport
+     */
+    public TransferReport uploadDirectory(String srcDir, String dstPath, boolean overwrite, TransferListener listener) throws IOException {
+        java.nio.file.Path root = Paths.get(srcDir);
+        List<java.nio.file.Path> files;
+        try (Stream<java.nio.file.Path> stream = Files.walk(root)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        List<Task> tasks = new ArrayList<>(files.size());
+        for (java.nio.file.Path file : files) {
+            String relative = root.relativize(file).toString().replace(File.separatorChar, '/');
+            tasks.add(new Task(file.toString(), hdfsService.generateHdfsPath(joinPath(dstPath, relative)), true, overwrite));
+        }
+        return execute(tasks, listener);
+    }
+
+    /**
+     * 批量下载HDFS文件至本地的同一个目录
+     *
+     * @param srcFiles HDFS的相对文件路径，比如：/testDir/a.txt
+     * @param dstDir   本地目录（不存在会自动创建），比如：D:/output
+     * @param listener 进度回调，可以为null
+     * @return TransferReport
+     */
+    public TransferReport downloadFiles(List<String> srcFiles, String dstDir, TransferListener listener) {
+        List<Task> tasks = new ArrayList<>(srcFiles.size());
+        for (String srcFile : srcFiles) {
+            String dstFile = new File(dstDir, new Path(srcFile).getName()).getPath();
+            tasks.add(new Task(hdfsService.generateHdfsPath(srcFile), dstFile, false, true));
+        }
+        return execute(tasks, listener);
+    }
+
+    /**
+     * 下载HDFS目录（包含子目录）至本地，保留相对目录结构
+     *
+     * @param srcPath  HDFS的相对目录路径，比如：/testDir
+     * @param dstDir   本地目录（不存在会自动创建），比如：D:/output
+     * @param listener 进度回调，可以为null
+     * @return TransferReport
+     */
+    public TransferReport downloadDirectory(String srcPath, String dstDir, TransferListener listener) throws IOException {
+        FileSystem fileSystem = hdfsService.getFileSystem();
+        Path root = fileSystem.makeQualified(new Path(hdfsService.generateHdfsPath(srcPath)));
+        URI rootUri = root.toUri();
+
+        List<Task> tasks = hdfsService.timed("listFiles", () -> {
+            List<Task> files = new ArrayList<>();
+            RemoteIterator<LocatedFileStatus> iterator = fileSystem.listFiles(root, true);
+            while (iterator.hasNext()) {
+                Path file = iterator.next().getPath();
+                String relative = rootUri.relativize(file.toUri()).getPath();
+                files.add(new Task(file.toString(), new File(dstDir, relative).getPath(), false, true));
+            }
+            return files;
+        });
+        return execute(tasks, listener);
+    }
+
+    /**
+     * 关闭线程池，由Spring容器关闭时调用；等待正在传输的文件完成，超时后未执行的文件记为失败
+     */
+    @Override
+    public void close() {
+        BoundedExecutors.shutdown(executor);
+    }
+
+    /**
+     * 并行执行所有任务，等待全部完成后返回结果
+     */
+    private TransferReport execute(List<Task> tasks, TransferListener listener) {
+        if (executor.isShutdown()) {
+            throw new IllegalStateException("HdfsBulkTransfer已关闭");
+        }
+        TransferListener callback = listener == null ? new TransferListener() {
+        } : listener;
+        long start = System.currentTimeMillis();
+        int total = tasks.size();
+        Batch batch = new Batch(total, callback);
+
+        List<TransferRunnable> runnables = new ArrayList<>(total);
+        for (Task task : tasks) {
+            TransferRunnable runnable = new TransferRunnable(task, batch);
+            runnables.add(runnable);
+            executor.execute(runnable);
+        }
+
+        try {
+            if (!BoundedExecutors.await(batch.latch, executor)) {
+                logger.error("HdfsBulkTransfer已关闭，未执行的文件记为失败");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("等待HDFS批量传输完成时被中断，未完成的文件记为失败", e);
+        }
+        for (TransferRunnable runnable : runnables) {
+            runnable.cancel();
+        }
+
+        return new TransferReport(total, batch.succeeded.get(), batch.totalBytes.get(),
+                System.currentTimeMillis() - start, new ArrayList<>(batch.failures));
+    }
+
+    /**
+     * 传输单个文件
+     */
+    private void transfer(Task task, AtomicLong totalBytes, TransferListener listener) throws IOException {
+        if (task.upload) {
+            hdfsService.timed("upload", () -> {
+                upload(task, totalBytes, listener);
+                return null;
+            });
+        } else {
+            hdfsService.timed("download", () -> {
+                download(task, totalBytes, listener);
+                return null;
+            });
+        }
+    }
+
+    private void upload(Task task, AtomicLong totalBytes, TransferListener listener) throws IOException {
+        FileSystem fileSystem = hdfsService.getFileSystem();
+        try {
+            long fileBytes;
+            try (InputStream in = new FileInputStream(task.src);
+                 OutputStream out = fileSystem.create(new Path(task.dst), task.overwrite, bufferSize)) {
+                fileBytes = copy(task.src, in, out, totalBytes, listener);
+            }
+            hdfsService.getMetrics().addBytesWritten(fileBytes);
+            if (task.preserveTimes) {
+                fileSystem.setTimes(new Path(task.dst), new File(task.src).lastModified(), -1);
+            }
+        } finally {
+            hdfsService.invalidateMetadata(new Path(task.dst));
+        }
+    }
+
+    private void download(Task task, AtomicLong totalBytes, TransferListener listener) throws IOException {
+        File dstFile = new File(task.dst);
+        File parent = dstFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs() && !parent.exists()) {
+            throw new IOException("创建本地目录失败：" + parent);
+        }
+        // openStream返回的流会统计读取字节数
+        try (InputStream in = hdfsService.openStream("open", new Path(task.src), bufferSize);
+             OutputStream out = new FileOutputStream(dstFile)) {
+            copy(task.src, in, out, totalBytes, listener);
+        }
+    }
+
+    private long copy(String src, InputStream in, OutputStream out, AtomicLong totalBytes, TransferListener listener) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        long fileBytes = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            fileBytes += read;
+            listener.onBytes(src, fileBytes, totalBytes.addAndGet(read));
+        }
+        return fileBytes;
+    }
+
+    private static String joinPath(String dir, String name) {
+        return dir.endsWith("/") ? dir + name : dir + "/" + name;
+    }
+
+    /**
+     * 一批传输共享的进度和结果
+     */
+    private static class Batch {
+
+        private final int total;
+        private final TransferListener callback;
+        private final CountDownLatch latch;
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong totalBytes = new AtomicLong();
+        private final ConcurrentLinkedQueue<TransferReport.Failure> failures = new ConcurrentLinkedQueue<>();
+
+        Batch(int total, TransferListener callback) {
+            this.total = total;
+            this.callback = callback;
+            this.latch = new CountDownLatch(total);
+        }
+    }
+
+    /**
+     * 在线程池中执行的单个文件传输，执行完成或被取消时只记录一次结果
+     */
+    private class TransferRunnable implements BoundedExecutors.CancellableTask {
+
+        private final Task task;
+        private final Batch batch;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        TransferRunnable(Task task, Batch batch) {
+            this.task = task;
+            this.batch = batch;
+        }
+
+        @Override
+        public void run() {
+            if (finished.get()) {
+                return;
+            }
+            Exception failure = null;
+            try {
+                transfer(task, batch.totalBytes, batch.callback);
+            } catch (Exception e) {
+                logger.error(MessageFormat.format("HDFS批量传输失败，src:{0},dst:{1}", task.src, task.dst), e);
+                failure = e;
+            }
+            finish(failure);
+        }
+
+        /**
+         * 任务没有执行或没有在等待期间完成，记为失败
+         */
+        @Override
+        public void cancel() {
+            finish(new CancellationException("HdfsBulkTransfer已关闭或等待被中断，文件未传输"));
+        }
+
+        private void finish(Exception failure) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (failure == null) {
+                    batch.succeeded.incrementAndGet();
+                } else {
+                    batch.failures.add(new TransferReport.Failure(task.src, task.dst, failure));
+                    batch.callback.onFileFailed(task.src, task.dst, failure);
+                }
+                batch.callback.onFileComplete(task.src, task.dst, batch.completed.incrementAndGet(), batch.total);
+            } finally {
+                batch.latch.countDown();
+            }
+        }
+    }
+
+    /**
+     * 单个文件的传输任务
+     */
+    private static class Task {
+
+        private final String src;
+        private final String dst;
+        private final boolean upload;
+        private final boolean overwrite;
+        private boolean preserveTimes;
+
+        Task(String src, String dst, boolean upload, boolean overwrite) {
+            this.src = src;
+            this.dst = dst;
+            this.upload = upload;
+            this.overwrite = overwrite;
+        }
+    }
+}
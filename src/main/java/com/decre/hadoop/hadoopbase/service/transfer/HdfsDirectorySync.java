@@ -0,0 +1,228 @@
+package com.decre.hadoop.hadoopbase.service.transfer;
+
+import com.decre.hadoop.hadoopbase.service.HdfsService;
+import com.decre.hadoop.hadoopbase.service.batch.BatchResult;
+import com.decre.hadoop.hadoopbase.service.batch.HdfsBatchOperations;
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.MD5MD5CRC32FileChecksum;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.util.DataChecksum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 22:00
+ * @since 1.0.0
+ * Descirption: 本地目录到HDFS的增量同步
+ * <p>依次比较大小、修改时间，可选比较校验和，只上传新增或变化的文件；上传时把HDFS文件的修改时间设置为本地文件的修改时间，
+ * 下次同步时未变化的文件只需比较元数据。</p>
+ * <p>校验和比较只支持HDFS默认的MD5MD5CRC32校验和（dfs.checksum.combine.mode=MD5MD5CRC）：
+ * 按照HDFS的block大小和bytesPerChecksum在本地计算同样的值，其它校验和类型退化为只比较大小和修改时间。</p>
+ */
+public class HdfsDirectorySync {
+
+    private Logger logger = LoggerFactory.getLogger(HdfsDirectorySync.class);
+
+    private final HdfsService hdfsService;
+
+    private final HdfsBulkTransfer bulkTransfer;
+
+    private final HdfsBatchOperations batchOperations;
+
+    public HdfsDirectorySync(HdfsService hdfsService, HdfsBulkTransfer bulkTransfer, HdfsBatchOperations batchOperations) {
+        this.hdfsService = hdfsService;
+        this.bulkTransfer = bulkTransfer;
+        this.batchOperations = batchOperations;
+    }
+
+    /**
+     * 将本地目录同步到HDFS
+     *
+     * @param localDir      本地目录，比如：D:/input
+     * @param dstPath       HDFS的相对目录路径，比如：/testDir
+     * @param useChecksum   大小相同但修改时间不同时，是否比较校验和；为false时直接视为变化
+     * @param deleteRemoved 是否删除HDFS上存在但本地已经不存在的文件
+     * @param listener      上传进度回调，可以为null
+     * @return SyncReport
+     */
+    public SyncReport sync(String localDir, String dstPath, boolean useChecksum, boolean deleteRemoved, TransferListener listener) throws IOException {
+        FileSystem fileSystem = hdfsService.getFileSystem();
+        Path root = fileSystem.makeQualified(new Path(hdfsService.generateHdfsPath(dstPath)));
+        Map<String, LocatedFileStatus> remoteFiles = listRemote(fileSystem, root);
+
+        java.nio.file.Path localRoot = Paths.get(localDir);
+        Map<String, String> changed = new LinkedHashMap<>();
+        long scanned = 0;
+        long unchanged = 0;
+        long bytesSaved = 0;
+        long checksumMatched = 0;
+
+        List<java.nio.file.Path> localFiles = new ArrayList<>();
+        try (Stream<java.nio.file.Path> stream = Files.walk(localRoot)) {
+            stream.filter(Files::isRegularFile).forEach(localFiles::add);
+        }
+
+        for (java.nio.file.Path localFile : localFiles) {
+            scanned++;
+            String relative = localRoot.relativize(localFile).toString().replace(File.separatorChar, '/');
+            LocatedFileStatus remote = remoteFiles.remove(relative);
+            BasicFileAttributes attributes = Files.readAttributes(localFile, BasicFileAttributes.class);
+            long localMtime = attributes.lastModifiedTime().toMillis();
+
+            boolean same = false;
+            if (remote != null && remote.getLen() == attributes.size()) {
+                if (remote.getModificationTime() == localMtime) {
+                    same = true;
+                } else if (useChecksum && checksumEquals(fileSystem, remote, localFile)) {
+                    // 内容相同，只修正HDFS上的修改时间，下次同步不再计算校验和
+                    fileSystem.setTimes(remote.getPath(), localMtime, -1);
+                    hdfsService.invalidateMetadata(joinPath(dstPath, relative));
+                    checksumMatched++;
+                    same = true;
+                }
+            }
+
+            if (same) {
+                unchanged++;
+                bytesSaved += attributes.size();
+            } else {
+                changed.put(localFile.toString(), joinPath(dstPath, relative));
+            }
+        }
+
+        TransferReport transferReport = bulkTransfer.uploadFiles(changed, true, true, listener);
+
+        long deleted = 0;
+        if (deleteRemoved && !remoteFiles.isEmpty()) {
+            List<String> removed = new ArrayList<>();
+            for (String relative : remoteFiles.keySet()) {
+                removed.add(joinPath(dstPath, relative));
+            }
+            BatchResult<Boolean> deleteResult = batchOperations.deleteAll(removed, false);
+            deleted = deleteResult.getSucceededCount();
+        }
+
+        SyncReport report = new SyncReport(scanned, unchanged, bytesSaved, checksumMatched, deleted, transferReport);
+        logger.info("增量同步完成，localDir:{}，dstPath:{}，{}", localDir, dstPath, report);
+        return report;
+    }
+
+    /**
+     * 列出HDFS目录下的所有文件，key为相对路径
+     */
+    private Map<String, LocatedFileStatus> listRemote(FileSystem fileSystem, Path root) throws IOException {
+        Map<String, LocatedFileStatus> remoteFiles = new HashMap<>();
+        URI rootUri = root.toUri();
+        try {
+            RemoteIterator<LocatedFileStatus> iterator = fileSystem.listFiles(root, true);
+            while (iterator.hasNext()) {
+                LocatedFileStatus status = iterator.next();
+                remoteFiles.put(rootUri.relativize(status.getPath().toUri()).getPath(), status);
+            }
+        } catch (FileNotFoundException e) {
+            // 目标目录不存在，所有文件都需要上传
+        }
+        return remoteFiles;
+    }
+
+    /**
+     * 比较HDFS文件与本地文件的校验和
+     */
+    private boolean checksumEquals(FileSystem fileSystem, LocatedFileStatus remote, java.nio.file.Path localFile) {
+        try {
+            FileChecksum remoteChecksum = fileSystem.getFileChecksum(remote.getPath());
+            if (!(remoteChecksum instanceof MD5MD5CRC32FileChecksum)) {
+                logger.warn("不支持的校验和类型，按照文件已变化处理，path:{}，checksum:{}", remote.getPath(), remoteChecksum);
+                return false;
+            }
+            MD5MD5CRC32FileChecksum md5Checksum = (MD5MD5CRC32FileChecksum) remoteChecksum;
+            int bytesPerChecksum = md5Checksum.getChecksumOpt().getBytesPerChecksum();
+            byte[] localMd5 = localMd5Md5Crc(localFile, md5Checksum.getCrcType(), bytesPerChecksum, remote.getBlockSize());
+            byte[] remoteBytes = md5Checksum.getBytes();
+            byte[] remoteMd5 = Arrays.copyOfRange(remoteBytes, remoteBytes.length - localMd5.length, remoteBytes.length);
+            return Arrays.equals(localMd5, remoteMd5);
+        } catch (IOException e) {
+            logger.error(MessageFormat.format("比较校验和失败，按照文件已变化处理，path:{0}", remote.getPath()), e);
+            return false;
+        }
+    }
+
+    /**
+     * 按HDFS的算法计算本地文件的MD5MD5CRC32：每个block内每bytesPerChecksum字节计算一个CRC，
+     * 对一个block的所有CRC计算MD5，再对所有block的MD5计算MD5
+     */
+    private static byte[] localMd5Md5Crc(java.nio.file.Path localFile, DataChecksum.Type crcType, int bytesPerChecksum, long blockSize) throws IOException {
+        MessageDigest fileDigest = newMd5();
+        MessageDigest blockDigest = newMd5();
+        DataChecksum checksum = DataChecksum.newDataChecksum(crcType, bytesPerChecksum);
+        byte[] chunk = new byte[bytesPerChecksum];
+        ByteBuffer crc = ByteBuffer.allocate(checksum.getChecksumSize());
+        long blockOffset = 0;
+
+        try (InputStream in = Files.newInputStream(localFile)) {
+            int read;
+            while ((read = readChunk(in, chunk, (int) Math.min(bytesPerChecksum, blockSize - blockOffset))) > 0) {
+                crc.clear();
+                checksum.calculateChunkedSums(ByteBuffer.wrap(chunk, 0, read), crc);
+                blockDigest.update(crc.array(), 0, checksum.getChecksumSize());
+                blockOffset += read;
+                if (blockOffset == blockSize) {
+                    fileDigest.update(blockDigest.digest());
+                    blockOffset = 0;
+                }
+            }
+        }
+        if (blockOffset > 0) {
+            fileDigest.update(blockDigest.digest());
+        }
+        return fileDigest.digest();
+    }
+
+    private static int readChunk(InputStream in, byte[] chunk, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = in.read(chunk, total, length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String joinPath(String dir, String name) {
+        return dir.endsWith("/") ? dir + name : dir + "/" + name;
+    }
+}
@@ -0,0 +1,90 @@
+package com.decre.hadoop.hadoopbase.service.transfer;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 22:00
+ * @since 1.0.0
+ * Descirption: 增量同步结果
+ */
+public class SyncReport {
+
+    /**
+     * 本地文件总数
+     */
+    private final long scannedFiles;
+
+    /**
+     * 未变化、跳过上传的文件数
+     */
+    private final long unchangedFiles;
+
+    /**
+     * 未变化文件的总字节数，即节省的传输量
+     */
+    private final long bytesSaved;
+
+    /**
+     * 通过校验和确认未变化的文件数
+     */
+    private final long checksumMatchedFiles;
+
+    /**
+     * 删除的HDFS文件数
+     */
+    private final long deletedFiles;
+
+    /**
+     * 新增或变化文件的上传结果
+     */
+    private final TransferReport transferReport;
+
+    public SyncReport(long scannedFiles, long unchangedFiles, long bytesSaved, long checksumMatchedFiles,
+                      long deletedFiles, TransferReport transferReport) {
+        this.scannedFiles = scannedFiles;
+        this.unchangedFiles = unchangedFiles;
+        this.bytesSaved = bytesSaved;
+        this.checksumMatchedFiles = checksumMatchedFiles;
+        this.deletedFiles = deletedFiles;
+        this.transferReport = transferReport;
+    }
+
+    public long getScannedFiles() {
+        return scannedFiles;
+    }
+
+    public long getUnchangedFiles() {
+        return unchangedFiles;
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    public long getChecksumMatchedFiles() {
+        return checksumMatchedFiles;
+    }
+
+    public long getDeletedFiles() {
+        return deletedFiles;
+    }
+
+    public TransferReport getTransferReport() {
+        return transferReport;
+    }
+
+    public boolean isSuccess() {
+        return transferReport.isSuccess();
+    }
+
+    @Override
+    public String toString() {
+        return "SyncReport{" +
+                "scannedFiles=" + scannedFiles +
+                ", unchangedFiles=" + unchangedFiles +
+                ", bytesSaved=" + bytesSaved +
+                ", checksumMatchedFiles=" + checksumMatchedFiles +
+                ", deletedFiles=" + deletedFiles +
+                ", transferReport=" + transferReport +
+                '}';
+    }
+}
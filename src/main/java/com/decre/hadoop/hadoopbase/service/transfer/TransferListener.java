@@ -0,0 +1,41 @@
+package com.decre.hadoop.hadoopbase.service.transfer;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 11:00
+ * @since 1.0.0
+ * Descirption: 批量传输的进度回调，回调在工作线程中执行，实现类需要线程安全
+ */
+public interface TransferListener {
+
+    /**
+     * 单个文件传输了一段数据
+     *
+     * @param src        源文件路径
+     * @param fileBytes  该文件已传输的字节数
+     * @param totalBytes 所有文件已传输的字节数
+     */
+    default void onBytes(String src, long fileBytes, long totalBytes) {
+    }
+
+    /**
+     * 单个文件传输完成
+     *
+     * @param src            源文件路径
+     * @param dst            目标文件路径
+     * @param completedFiles 已完成（含失败）的文件数
+     * @param totalFiles     文件总数
+     */
+    default void onFileComplete(String src, String dst, long completedFiles, long totalFiles) {
+    }
+
+    /**
+     * 单个文件传输失败
+     *
+     * @param src 源文件路径
+     * @param dst 目标文件路径
+     * @param e   失败原因
+     */
+    default void onFileFailed(String src, String dst, Exception e) {
+    }
+}
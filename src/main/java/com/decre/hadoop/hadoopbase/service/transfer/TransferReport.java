@@ -0,0 +1,122 @@
+package com.decre.hadoop.hadoopbase.service.transfer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Decre
+ * @date 2026/10/18 0018 11:00
+ * @since 1.0.0
+ * Descirption: 批量传输结果，包括成功/失败数量、失败明细以及吞吐量
+ */
+public class TransferReport {
+
+    private final long totalFiles;
+
+    private final long succeededFiles;
+
+    private final long totalBytes;
+
+    private final long elapsedMillis;
+
+    private final List<Failure> failures;
+
+    public TransferReport(long totalFiles, long succeededFiles, long totalBytes, long elapsedMillis, List<Failure> failures) {
+        this.totalFiles = totalFiles;
+        this.succeededFiles = succeededFiles;
+        this.totalBytes = totalBytes;
+        this.elapsedMillis = elapsedMillis;
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    public long getTotalFiles() {
+        return totalFiles;
+    }
+
+    public long getSucceededFiles() {
+        return succeededFiles;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * 每秒传输的文件数
+     */
+    public double getFilesPerSecond() {
+        return elapsedMillis == 0 ? succeededFiles : succeededFiles * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * 每秒传输的MB数
+     */
+    public double getMegabytesPerSecond() {
+        double megabytes = totalBytes / (1024.0 * 1024.0);
+        return elapsedMillis == 0 ? megabytes : megabytes * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferReport{" +
+                "totalFiles=" + totalFiles +
+                ", succeededFiles=" + succeededFiles +
+                ", failedFiles=" + failures.size() +
+                ", totalBytes=" + totalBytes +
+                ", elapsedMillis=" + elapsedMillis +
+                ", filesPerSecond=" + String.format("%.2f", getFilesPerSecond()) +
+                ", megabytesPerSecond=" + String.format("%.2f", getMegabytesPerSecond()) +
+                '}';
+    }
+
+    /**
+     * 单个文件的失败信息
+     */
+    public static class Failure {
+
+        private final String src;
+
+        private final String dst;
+
+        private final Exception exception;
+
+        public Failure(String src, String dst, Exception exception) {
+            this.src = src;
+            this.dst = dst;
+            this.exception = exception;
+        }
+
+        public String getSrc() {
+            return src;
+        }
+
+        public String getDst() {
+            return dst;
+        }
+
+        public Exception getException() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure{" +
+                    "src='" + src + '\'' +
+                    ", dst='" + dst + '\'' +
+                    ", exception=" + exception +
+                    '}';
+        }
+    }
+}
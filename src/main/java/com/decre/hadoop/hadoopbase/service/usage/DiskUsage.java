@@ -0,0 +1,145 @@
+package com.decre.hadoop.hadoopbase.service.usage;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 0:00
+ * @since 1.0.0
+ * Descirption: 目录树的空间占用统计
+ */
+public class DiskUsage {
+
+    /**
+     * 统计的HDFS相对路径
+     */
+    private final String path;
+
+    /**
+     * 文件总字节数
+     */
+    private final long bytes;
+
+    /**
+     * 包含副本的实际占用空间
+     */
+    private final long spaceConsumed;
+
+    private final long fileCount;
+
+    /**
+     * 目录数量，包含统计的根目录本身
+     */
+    private final long directoryCount;
+
+    /**
+     * 按扩展名分类，key为小写的扩展名，没有扩展名时为空字符串
+     */
+    private final Map<String, UsageBucket> byExtension;
+
+    /**
+     * 按修改时间距今的时长分类，key比如：<1d、1d-7d、>=365d
+     */
+    private final Map<String, UsageBucket> byAge;
+
+    /**
+     * 超过深度限制、只通过getContentSummary统计的目录数量，这些目录下的文件不参与分类
+     */
+    private final long summarizedDirectories;
+
+    private final long elapsedMillis;
+
+    public DiskUsage(String path, long bytes, long spaceConsumed, long fileCount, long directoryCount,
+                     Map<String, UsageBucket> byExtension, Map<String, UsageBucket> byAge,
+                     long summarizedDirectories, long elapsedMillis) {
+        this.path = path;
+        this.bytes = bytes;
+        this.spaceConsumed = spaceConsumed;
+        this.fileCount = fileCount;
+        this.directoryCount = directoryCount;
+        this.byExtension = Collections.unmodifiableMap(byExtension);
+        this.byAge = Collections.unmodifiableMap(byAge);
+        this.summarizedDirectories = summarizedDirectories;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getSpaceConsumed() {
+        return spaceConsumed;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public long getDirectoryCount() {
+        return directoryCount;
+    }
+
+    public Map<String, UsageBucket> getByExtension() {
+        return byExtension;
+    }
+
+    public Map<String, UsageBucket> getByAge() {
+        return byAge;
+    }
+
+    public long getSummarizedDirectories() {
+        return summarizedDirectories;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "DiskUsage{" +
+                "path='" + path + '\'' +
+                ", bytes=" + bytes +
+                ", spaceConsumed=" + spaceConsumed +
+                ", fileCount=" + fileCount +
+                ", directoryCount=" + directoryCount +
+                ", byExtension=" + byExtension +
+                ", byAge=" + byAge +
+                ", summarizedDirectories=" + summarizedDirectories +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+
+    /**
+     * 某一类文件的数量和字节数
+     */
+    public static class UsageBucket {
+
+        private final long fileCount;
+
+        private final long bytes;
+
+        public UsageBucket(long fileCount, long bytes) {
+            this.fileCount = fileCount;
+            this.bytes = bytes;
+        }
+
+        public long getFileCount() {
+            return fileCount;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return "{fileCount=" + fileCount + ", bytes=" + bytes + '}';
+        }
+    }
+}
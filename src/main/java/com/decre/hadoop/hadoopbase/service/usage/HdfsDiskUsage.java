@@ -0,0 +1,359 @@
+package com.decre.hadoop.hadoopbase.service.usage;
+
+import com.decre.hadoop.hadoopbase.service.HdfsService;
+import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.hdfs.protocol.ErasureCodingPolicy;
+import org.apache.hadoop.hdfs.protocol.HdfsFileStatus;
+import org.apache.hadoop.hdfs.util.StripedBlockUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Decre
+ * @date 2026/10/19 0019 0:00
+ * @since 1.0.0
+ * Descirption: 目录树的空间占用统计
+ * <p>只需要总量时使用{@link #summarize(String)}，由NameNode一次RPC返回；需要按扩展名、修改时间分类时使用
+ * {@link #analyze(String, int)}，在ForkJoinPool中并行遍历各个子目录，超过深度限制的目录退化为getContentSummary，
+ * 只计入总量，不参与分类。</p>
+ * <p>遍历时文件占用的空间按文件的实际布局计算：多副本文件为 长度 * 副本数，纠删码文件按block group计算数据块和校验块，
+ * 与getContentSummary的结果一致。</p>
+ */
+public class HdfsDiskUsage implements Closeable {
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * 默认的修改时间分类边界：1天、7天、30天、90天、365天
+     */
+    private static final long[] DEFAULT_AGE_BOUNDARIES = {DAY_MILLIS, 7 * DAY_MILLIS, 30 * DAY_MILLIS, 90 * DAY_MILLIS, 365 * DAY_MILLIS};
+
+    private Logger logger = LoggerFactory.getLogger(HdfsDiskUsage.class);
+
+    private final HdfsService hdfsService;
+
+    private final ForkJoinPool pool;
+
+    public HdfsDiskUsage(HdfsService hdfsService, int parallelism) {
+        this.hdfsService = hdfsService;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.pool = new ForkJoinPool(Math.max(1, parallelism), p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("hdfs-usage-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * 通过getContentSummary统计总量，不包含分类
+     *
+     * @param path HDFS的相对目录路径，比如：/testDir
+     * @return DiskUsage
+     */
+    public DiskUsage summarize(String path) throws IOException {
+        long start = System.currentTimeMillis();
+        FileSystem fileSystem = hdfsService.getFileSystem();
+        Path hdfsPath = new Path(hdfsService.generateHdfsPath(path));
+        ContentSummary summary = hdfsService.getRetryPolicy().execute("getContentSummary", () -> fileSystem.getContentSummary(hdfsPath));
+        return new DiskUsage(path, summary.getLength(), summary.getSpaceConsumed(), summary.getFileCount(), summary.getDirectoryCount(),
+                new TreeMap<>(), new LinkedHashMap<>(), 1, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 并行遍历目录树，统计总量以及按扩展名、修改时间的分类，修改时间使用默认的分类边界
+     *
+     * @param path     HDFS的相对目录路径，比如：/testDir
+     * @param maxDepth 遍历的目录层数，0表示只调用一次getContentSummary，小于0表示不限制
+     * @return DiskUsage
+     */
+    public DiskUsage analyze(String path, int maxDepth) throws IOException {
+        return analyze(path, maxDepth, DEFAULT_AGE_BOUNDARIES);
+    }
+
+    /**
+     * 并行遍历目录树，统计总量以及按扩展名、修改时间的分类
+     *
+     * @param path                HDFS的相对目录路径，比如：/testDir
+     * @param maxDepth            遍历的目录层数，0表示只调用一次getContentSummary，小于0表示不限制
+     * @param ageBoundariesMillis 修改时间分类的边界，单位毫秒，从小到大排列
+     * @return DiskUsage
+     */
+    public DiskUsage analyze(String path, int maxDepth, long[] ageBoundariesMillis) throws IOException {
+        long start = System.currentTimeMillis();
+        FileSystem fileSystem = hdfsService.getFileSystem();
+        Path root = new Path(hdfsService.generateHdfsPath(path));
+        FileStatus rootStatus = hdfsService.getRetryPolicy().execute("getFileStatus", () -> fileSystem.getFileStatus(root));
+
+        WalkContext context = new WalkContext(fileSystem, maxDepth < 0 ? Integer.MAX_VALUE : maxDepth, start, ageBoundariesMillis);
+        Accumulator total;
+        if (rootStatus.isFile()) {
+            total = new Accumulator();
+            total.addFile(rootStatus, spaceConsumed(fileSystem, rootStatus), context);
+        } else {
+            try {
+                total = pool.invoke(new DirectoryTask(context, root, 0));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        total.ensureAgeBuckets(context.ageLabels.length);
+        Map<String, DiskUsage.UsageBucket> byAge = new LinkedHashMap<>();
+        for (int i = 0; i < context.ageLabels.length; i++) {
+            byAge.put(context.ageLabels[i], new DiskUsage.UsageBucket(total.ageFiles[i], total.ageBytes[i]));
+        }
+        Map<String, DiskUsage.UsageBucket> byExtension = new TreeMap<>();
+        total.extensions.forEach((extension, counter) -> byExtension.put(extension, new DiskUsage.UsageBucket(counter[0], counter[1])));
+
+        DiskUsage usage = new DiskUsage(path, total.bytes, total.spaceConsumed, total.files, total.directories,
+                byExtension, byAge, total.summarizedDirectories, System.currentTimeMillis() - start);
+        logger.info("空间占用统计完成，path:{}，bytes:{}，files:{}，directories:{}，耗时:{}ms",
+                path, usage.getBytes(), usage.getFileCount(), usage.getDirectoryCount(), usage.getElapsedMillis());
+        return usage;
+    }
+
+    /**
+     * 关闭线程池，由Spring容器关闭时调用
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 文件占用的存储空间（包含副本或者校验块）
+     * <p>纠删码文件的副本数为1，不能用 长度 * 副本数 计算：每个block group包含numDataUnits个数据块和numParityUnits个校验块，
+     * 除最后一个以外的block group都是写满的（blockSize * numDataUnits），与NameNode计算配额时的方式相同。
+     * 取不到纠删码策略时（非HDFS的FileStatus）对该文件调用getContentSummary。</p>
+     */
+    private long spaceConsumed(FileSystem fileSystem, FileStatus status) throws IOException {
+        if (!status.isErasureCoded()) {
+            return status.getLen() * Math.max(1, status.getReplication());
+        }
+        ErasureCodingPolicy policy = status instanceof HdfsFileStatus ? ((HdfsFileStatus) status).getErasureCodingPolicy() : null;
+        if (policy == null) {
+            return hdfsService.getRetryPolicy().execute("getContentSummary",
+                    () -> fileSystem.getContentSummary(status.getPath())).getSpaceConsumed();
+        }
+        int dataUnits = policy.getNumDataUnits();
+        int parityUnits = policy.getNumParityUnits();
+        long groupSize = status.getBlockSize() * dataUnits;
+        long fullGroups = status.getLen() / groupSize;
+        long lastGroup = status.getLen() % groupSize;
+        long space = fullGroups * StripedBlockUtil.spaceConsumedByStripedBlock(groupSize, dataUnits, parityUnits, policy.getCellSize());
+        if (lastGroup > 0) {
+            space += StripedBlockUtil.spaceConsumedByStripedBlock(lastGroup, dataUnits, parityUnits, policy.getCellSize());
+        }
+        return space;
+    }
+
+    private static String extensionOf(String name) {
+        int dot = name.lastIndexOf('.');
+        // 以.开头的隐藏文件视为没有扩展名
+        return dot <= 0 || dot == name.length() - 1 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] ageLabels(long[] boundaries) {
+        String[] labels = new String[boundaries.length + 1];
+        for (int i = 0; i <= boundaries.length; i++) {
+            if (i == 0) {
+                labels[i] = "<" + formatAge(boundaries[0]);
+            } else if (i == boundaries.length) {
+                labels[i] = ">=" + formatAge(boundaries[i - 1]);
+            } else {
+                labels[i] = formatAge(boundaries[i - 1]) + "-" + formatAge(boundaries[i]);
+            }
+        }
+        return labels;
+    }
+
+    private static String formatAge(long millis) {
+        if (millis % DAY_MILLIS == 0) {
+            return millis / DAY_MILLIS + "d";
+        }
+        long hour = TimeUnit.HOURS.toMillis(1);
+        return millis % hour == 0 ? millis / hour + "h" : millis + "ms";
+    }
+
+    /**
+     * 一次统计的参数
+     */
+    private static class WalkContext {
+
+        private final FileSystem fileSystem;
+
+        private final int maxDepth;
+
+        private final long now;
+
+        private final long[] ageBoundaries;
+
+        private final String[] ageLabels;
+
+        private WalkContext(FileSystem fileSystem, int maxDepth, long now, long[] ageBoundaries) {
+            if (ageBoundaries == null || ageBoundaries.length == 0) {
+                throw new IllegalArgumentException("修改时间分类边界不能为空");
+            }
+            this.fileSystem = fileSystem;
+            this.maxDepth = maxDepth;
+            this.now = now;
+            this.ageBoundaries = ageBoundaries;
+            this.ageLabels = ageLabels(ageBoundaries);
+        }
+
+        private int ageIndex(long modificationTime) {
+            long age = now - modificationTime;
+            int index = 0;
+            while (index < ageBoundaries.length && age >= ageBoundaries[index]) {
+                index++;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * 统计一个目录：直接列出目录下的文件，子目录在深度限制内时fork子任务，否则调用getContentSummary
+     */
+    private class DirectoryTask extends RecursiveTask<Accumulator> {
+
+        private final WalkContext context;
+
+        private final Path dir;
+
+        private final int depth;
+
+        private DirectoryTask(WalkContext context, Path dir, int depth) {
+            this.context = context;
+            this.dir = dir;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            try {
+                if (depth >= context.maxDepth) {
+                    return summarizeDirectory();
+                }
+                Accumulator result = new Accumulator();
+                result.directories++;
+                List<DirectoryTask> subTasks = new ArrayList<>();
+                RemoteIterator<FileStatus> iterator = context.fileSystem.listStatusIterator(dir);
+                while (iterator.hasNext()) {
+                    FileStatus status = iterator.next();
+                    if (status.isDirectory()) {
+                        DirectoryTask subTask = new DirectoryTask(context, status.getPath(), depth + 1);
+                        subTask.fork();
+                        subTasks.add(subTask);
+                    } else {
+                        result.addFile(status, spaceConsumed(context.fileSystem, status), context);
+                    }
+                }
+                for (DirectoryTask subTask : subTasks) {
+                    result.merge(subTask.join());
+                }
+                return result;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Accumulator summarizeDirectory() throws IOException {
+            ContentSummary summary = hdfsService.getRetryPolicy().execute("getContentSummary",
+                    () -> context.fileSystem.getContentSummary(dir));
+            Accumulator result = new Accumulator();
+            result.bytes = summary.getLength();
+            result.spaceConsumed = summary.getSpaceConsumed();
+            result.files = summary.getFileCount();
+            result.directories = summary.getDirectoryCount();
+            result.summarizedDirectories = 1;
+            return result;
+        }
+    }
+
+    /**
+     * 一个子树的统计结果，只在单个任务内修改，合并时由父任务读取
+     */
+    private static class Accumulator {
+
+        private long bytes;
+
+        private long spaceConsumed;
+
+        private long files;
+
+        private long directories;
+
+        private long summarizedDirectories;
+
+        /**
+         * 扩展名 -> {文件数, 字节数}
+         */
+        private final Map<String, long[]> extensions = new HashMap<>();
+
+        private long[] ageFiles;
+
+        private long[] ageBytes;
+
+        private void addFile(FileStatus status, long fileSpaceConsumed, WalkContext context) {
+            ensureAgeBuckets(context.ageBoundaries.length + 1);
+            long length = status.getLen();
+            bytes += length;
+            spaceConsumed += fileSpaceConsumed;
+            files++;
+            long[] counter = extensions.computeIfAbsent(extensionOf(status.getPath().getName()), k -> new long[2]);
+            counter[0]++;
+            counter[1] += length;
+            int ageIndex = context.ageIndex(status.getModificationTime());
+            ageFiles[ageIndex]++;
+            ageBytes[ageIndex] += length;
+        }
+
+        private void merge(Accumulator other) {
+            bytes += other.bytes;
+            spaceConsumed += other.spaceConsumed;
+            files += other.files;
+            directories += other.directories;
+            summarizedDirectories += other.summarizedDirectories;
+            other.extensions.forEach((extension, counter) -> {
+                long[] target = extensions.computeIfAbsent(extension, k -> new long[2]);
+                target[0] += counter[0];
+                target[1] += counter[1];
+            });
+            if (other.ageFiles != null) {
+                ensureAgeBuckets(other.ageFiles.length);
+                for (int i = 0; i < ageFiles.length; i++) {
+                    ageFiles[i] += other.ageFiles[i];
+                    ageBytes[i] += other.ageBytes[i];
+                }
+            }
+        }
+
+        private void ensureAgeBuckets(int size) {
+            if (ageFiles == null) {
+                ageFiles = new long[size];
+                ageBytes = new long[size];
+            }
+        }
+    }
+}
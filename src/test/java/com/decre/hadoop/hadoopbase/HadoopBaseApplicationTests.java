@@ -1,9 +1,32 @@
 package com.decre.hadoop.hadoopbase;
 
-import com.decre.hadoop.hadoopbase.entity.User;
+import com.alibaba.fastjson.JSON;
+import com.decre.common.entity.User;
+import com.decre.hadoop.hadoopbase.entity.HdfsFileInfo;
+import com.decre.hadoop.hadoopbase.service.HdfsAsyncService;
+import com.decre.hadoop.hadoopbase.service.HdfsFileFilter;
+import com.decre.hadoop.hadoopbase.service.HdfsLogAppender;
+import com.decre.hadoop.hadoopbase.service.HdfsMetadataCache;
+import com.decre.hadoop.hadoopbase.service.HdfsParallelReader;
 import com.decre.hadoop.hadoopbase.service.HdfsService;
+import com.decre.hadoop.hadoopbase.service.HdfsWriteOptions;
+import com.decre.hadoop.hadoopbase.service.SmallFileContainer;
+import com.decre.hadoop.hadoopbase.service.batch.BatchResult;
+import com.decre.hadoop.hadoopbase.service.batch.HdfsBatchOperations;
+import com.decre.hadoop.hadoopbase.service.json.JsonRecordIterator;
+import com.decre.hadoop.hadoopbase.service.metrics.DefaultHdfsMetrics;
+import com.decre.hadoop.hadoopbase.service.sequence.SequenceRecordIterator;
+import com.decre.hadoop.hadoopbase.service.sequence.SequenceRecordWriter;
+import com.decre.hadoop.hadoopbase.service.sequence.UserWritable;
+import com.decre.hadoop.hadoopbase.service.transfer.HdfsBulkTransfer;
+import com.decre.hadoop.hadoopbase.service.transfer.HdfsDirectorySync;
+import com.decre.hadoop.hadoopbase.service.transfer.SyncReport;
+import com.decre.hadoop.hadoopbase.service.transfer.TransferReport;
+import com.decre.hadoop.hadoopbase.service.usage.DiskUsage;
+import com.decre.hadoop.hadoopbase.service.usage.HdfsDiskUsage;
 import org.apache.hadoop.fs.BlockLocation;
 import org.apache.hadoop.fs.FSDataInputStream;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,8 +37,12 @@ import org.springframework.test.context.web.WebAppConfiguration;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -25,6 +52,30 @@ public class HadoopBaseApplicationTests {
     @Autowired
     private HdfsService hdfsService;
 
+    @Autowired
+    private HdfsBulkTransfer hdfsBulkTransfer;
+
+    @Autowired
+    private HdfsBatchOperations hdfsBatchOperations;
+
+    @Autowired
+    private HdfsParallelReader hdfsParallelReader;
+
+    @Autowired
+    private HdfsAsyncService hdfsAsyncService;
+
+    @Autowired
+    private HdfsDirectorySync hdfsDirectorySync;
+
+    @Autowired
+    private DefaultHdfsMetrics hdfsMetrics;
+
+    @Autowired
+    private HdfsDiskUsage hdfsDiskUsage;
+
+    @Autowired
+    private HdfsLogAppender hdfsLogAppender;
+
 
     /**
      * 测试创建HDFS目录
@@ -140,4 +191,361 @@ public class HadoopBaseApplicationTests {
             }
         }
     }
+
+    /**
+     * 测试FileSystem句柄复用
+     */
+    @Test
+    public void testFileSystemPool() {
+        for (int i = 0; i < 10; i++) {
+            hdfsService.checkExists("/testDir");
+        }
+        System.out.println("新建句柄：" + hdfsService.getFileSystemPool().getCreatedCount());
+        System.out.println("复用句柄：" + hdfsService.getFileSystemPool().getReusedCount());
+    }
+
+    /**
+     * 测试批量上传、下载目录
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBulkTransfer() throws IOException {
+        TransferReport uploadReport = hdfsBulkTransfer.uploadDirectory("D:\\ITape\\test\\input", "/input", true, null);
+        System.out.println("上传结果：" + uploadReport);
+
+        TransferReport downloadReport = hdfsBulkTransfer.downloadDirectory("/input", "D:\\ITape\\test\\download", null);
+        System.out.println("下载结果：" + downloadReport);
+    }
+
+    /**
+     * 测试分段读取HDFS上面的文件
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testReadRange() throws IOException {
+        byte[] head = hdfsService.readRange("/output/part-r-00000", 0, 16);
+        System.out.println(new String(head, "UTF-8"));
+
+        long copied = hdfsService.copyRange("/output/part-r-00000", 16, -1, System.out);
+        System.out.println();
+        System.out.println("读取字节数：" + copied);
+    }
+
+    /**
+     * 测试逐条读取HDFS上面的JSON对象
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testOpenWithObjects() throws IOException {
+        long count = hdfsService.openWithObjects("/testDir/users.json", User.class, 1000,
+                batch -> System.out.println("批次数量：" + batch.size()));
+        System.out.println("记录总数：" + count);
+    }
+
+    /**
+     * 测试分页递归列出某个目录下面的文件
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testListFilesLazily() throws IOException {
+        long count = hdfsService.listFiles("/testDir", true, null, 500,
+                page -> page.forEach(System.out::println));
+        System.out.println("文件总数：" + count);
+    }
+
+    /**
+     * 测试元数据缓存命中
+     */
+    @Test
+    public void testMetadataCache() {
+        hdfsService.setMetadataCache(new HdfsMetadataCache(5000, 1000));
+        for (int i = 0; i < 10; i++) {
+            hdfsService.checkExists("/testDir");
+        }
+        hdfsService.mkdir("/testDir/cache");
+        hdfsService.checkExists("/testDir");
+
+        HdfsMetadataCache cache = hdfsService.getMetadataCache();
+        System.out.println("命中：" + cache.getHitCount() + "，未命中：" + cache.getMissCount());
+        hdfsService.setMetadataCache(null);
+    }
+
+    /**
+     * 测试批量创建、判断、删除目录
+     */
+    @Test
+    public void testBatchOperations() {
+        List<String> paths = Arrays.asList("/batch/a", "/batch/b", "/batch/c");
+
+        BatchResult<Boolean> mkdirResult = hdfsBatchOperations.mkdirAll(paths, false);
+        System.out.println("创建结果：" + mkdirResult);
+
+        BatchResult<Boolean> existsResult = hdfsBatchOperations.existsAll(paths, false);
+        existsResult.getOutcomes().forEach(System.out::println);
+
+        BatchResult<Boolean> deleteResult = hdfsBatchOperations.deleteAll(paths, true);
+        System.out.println("删除结果：" + deleteResult);
+    }
+
+    /**
+     * 测试按block并行读取文件
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testParallelRead() throws IOException {
+        long start = System.currentTimeMillis();
+        long length = hdfsParallelReader.read("/testDir/hadoop2.txt", (offset, data, len) -> {
+        });
+        System.out.println("读取字节数：" + length + "，耗时：" + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * 测试压缩写入以及自动解压读取
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCompressedWrite() throws IOException {
+        HdfsWriteOptions options = HdfsWriteOptions.defaults()
+                .setCodec("gzip")
+                .setReplication((short) 2);
+        long written = hdfsService.write("D:\\ITape\\test\\input\\hadoop1.txt", "/input/hadoop1.txt.gz", options);
+        System.out.println("写入字节数：" + written);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(hdfsService.openDecompressed("/input/hadoop1.txt.gz")));
+        String line = null;
+        while ((line = reader.readLine()) != null) {
+            System.out.println(line);
+        }
+        reader.close();
+    }
+
+    /**
+     * 测试小文件打包、查找以及遍历
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSmallFileContainer() throws IOException {
+        try (SmallFileContainer container = hdfsService.openSmallFileContainer("/packed/input")) {
+            int count = container.appendLocalDirectory("D:\\ITape\\test\\input");
+            System.out.println("打包文件数量：" + count);
+
+            byte[] content = container.get("hadoop1.txt");
+            System.out.println(content == null ? null : new String(content, "UTF-8"));
+
+            container.forEach((key, data, length) -> System.out.println(key + "--" + length));
+        }
+    }
+
+    /**
+     * 测试异步并发判断多个路径是否存在
+     */
+    @Test
+    public void testAsync() {
+        CompletableFuture<Boolean> input = hdfsAsyncService.checkExists("/input");
+        CompletableFuture<Boolean> output = hdfsAsyncService.checkExists("/output");
+        CompletableFuture.allOf(input, output)
+                .thenRun(() -> System.out.println("/input：" + input.join() + "，/output：" + output.join()))
+                .exceptionally(e -> {
+                    e.printStackTrace();
+                    return null;
+                })
+                .join();
+    }
+
+    /**
+     * 测试本地目录增量同步到HDFS，第二次同步时未变化的文件不会再上传
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSync() throws IOException {
+        SyncReport first = hdfsDirectorySync.sync("D:\\ITape\\test\\input", "/sync/input", true, true, null);
+        System.out.println("第一次同步：" + first);
+
+        SyncReport second = hdfsDirectorySync.sync("D:\\ITape\\test\\input", "/sync/input", true, true, null);
+        System.out.println("第二次同步：" + second);
+    }
+
+    /**
+     * 对比uploadFileToHdfs与uploadFileWithChannel上传大文件的耗时
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testUploadBenchmark() throws IOException {
+        String srcFile = "D:\\ITape\\test\\big.dat";
+        long size = new java.io.File(srcFile).length();
+        int rounds = 3;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            hdfsService.uploadFileToHdfs(false, true, srcFile, "/benchmark/copy.dat");
+        }
+        long copyNanos = (System.nanoTime() - start) / rounds;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            hdfsService.uploadFileWithChannel(srcFile, "/benchmark/channel.dat", true);
+        }
+        long channelNanos = (System.nanoTime() - start) / rounds;
+
+        System.out.println(String.format("copyFromLocalFile：%.2f MB/s", size / 1048576.0 / (copyNanos / 1e9)));
+        System.out.println(String.format("FileChannel：%.2f MB/s", size / 1048576.0 / (channelNanos / 1e9)));
+    }
+
+    /**
+     * 测试HdfsService的监控指标，同样的数据也可以通过JMX查看
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMetrics() throws IOException {
+        hdfsMetrics.reset();
+        for (int i = 0; i < 100; i++) {
+            hdfsService.checkExists("/testDir");
+            hdfsService.openWithString("/testDir/b.txt");
+        }
+
+        hdfsMetrics.getOperations().forEach((name, snapshot) -> System.out.println(name + "：" + snapshot));
+        System.out.println("读取字节数：" + hdfsMetrics.getBytesRead() + "，打开的流：" + hdfsMetrics.getActiveStreams());
+    }
+
+    /**
+     * 查看生效的DFS客户端参数和重试策略
+     */
+    @Test
+    public void testClientConfig() {
+        org.apache.hadoop.conf.Configuration conf = hdfsService.getConf();
+        System.out.println("dfs.client.socket-timeout：" + conf.get("dfs.client.socket-timeout"));
+        System.out.println("dfs.client.hedged.read.threadpool.size：" + conf.get("dfs.client.hedged.read.threadpool.size"));
+        System.out.println("dfs.client.hedged.read.threshold.millis：" + conf.get("dfs.client.hedged.read.threshold.millis"));
+        System.out.println("重试次数：" + hdfsService.getRetryPolicy().getMaxAttempts());
+
+        System.out.println(hdfsService.getFileStatus("/testDir/a.txt"));
+    }
+
+    /**
+     * 测试目录树空间占用统计，3层以下的目录只统计总量
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDiskUsage() throws IOException {
+        System.out.println(hdfsDiskUsage.summarize("/"));
+
+        DiskUsage usage = hdfsDiskUsage.analyze("/", 3);
+        System.out.println("总字节数：" + usage.getBytes() + "，文件数：" + usage.getFileCount() + "，目录数：" + usage.getDirectoryCount());
+        usage.getByExtension().forEach((extension, bucket) -> System.out.println("扩展名 " + extension + "：" + bucket));
+        usage.getByAge().forEach((age, bucket) -> System.out.println("修改时间 " + age + "：" + bucket));
+    }
+
+    /**
+     * 测试日志追加写入，多条记录共享一次hflush
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLogAppender() throws IOException {
+        long start = System.currentTimeMillis();
+        CompletableFuture<Void> last = null;
+        for (int i = 0; i < 100000; i++) {
+            last = hdfsLogAppender.append("/logs/events", "{\"id\":" + i + ",\"event\":\"click\"}");
+        }
+        // 最后一条记录提交成功，说明之前的记录都已经提交
+        last.join();
+        System.out.println("写入100000条记录耗时：" + (System.currentTimeMillis() - start) + "ms");
+
+        hdfsLogAppender.flush("/logs/events");
+        System.out.println(hdfsService.listFiles("/logs/events", null));
+    }
+
+    /**
+     * 测试按glob和分区时间查找文件，时间范围之外的分区目录不会被列出
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testFindFiles() throws IOException {
+        long to = System.currentTimeMillis();
+        long from = to - 6 * 60 * 60 * 1000L;
+        List<HdfsFileInfo> files = hdfsService.findFiles("/logs",
+                HdfsFileFilter.nameGlob("*.log").and(HdfsFileFilter.sizeBetween(1, Long.MAX_VALUE)),
+                HdfsFileFilter.partitionTime("/logs", "yyyy/MM/dd/HH", from, to),
+                true);
+        files.forEach(file -> System.out.println(file.getPath() + "，" + file.getLength()));
+
+        System.out.println(hdfsService.findFiles("/testDir/*.txt", null, null, false));
+    }
+
+    /**
+     * 对比User以SequenceFile（二进制、BLOCK压缩）和JSON Lines存储时的文件大小和读取速度
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testUserSequenceFileBenchmark() throws IOException {
+        int count = 1000000;
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User((long) i, "user" + i, "password" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setMobile("138" + String.format("%08d", i));
+            user.setCreateTime(new Date());
+            user.setStatus(i % 3);
+            users.add(user);
+        }
+
+        try (SequenceRecordWriter<User> writer = hdfsService.createRecordWriter("/benchmark/users.seq", UserWritable.class)) {
+            writer.appendAll(users);
+        }
+        hdfsService.write("/benchmark/users.json", HdfsWriteOptions.defaults(), out -> {
+            for (User user : users) {
+                out.write(JSON.toJSONBytes(user));
+                out.write('\n');
+            }
+        });
+        System.out.println("SequenceFile大小：" + hdfsService.getFileStatus("/benchmark/users.seq").getLen()
+                + "，JSON大小：" + hdfsService.getFileStatus("/benchmark/users.json").getLen());
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.currentTimeMillis();
+            long seqCount = 0;
+            try (SequenceRecordIterator<User> iterator = hdfsService.openWithRecords("/benchmark/users.seq")) {
+                while (iterator.hasNext()) {
+                    assertSampleEquals(users, seqCount, iterator.next());
+                    seqCount++;
+                }
+            }
+            long seqMillis = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            long jsonCount = 0;
+            try (JsonRecordIterator<User> iterator = hdfsService.openWithObjects("/benchmark/users.json", User.class)) {
+                while (iterator.hasNext()) {
+                    assertSampleEquals(users, jsonCount, iterator.next());
+                    jsonCount++;
+                }
+            }
+            long jsonMillis = System.currentTimeMillis() - start;
+            System.out.println("SequenceFile读取" + seqCount + "条：" + seqMillis + "ms，JSON读取" + jsonCount + "条：" + jsonMillis + "ms");
+            Assert.assertEquals(count, seqCount);
+            Assert.assertEquals(count, jsonCount);
+        }
+    }
+
+    /**
+     * 每隔1000条抽查一条，User没有equals，比较JSON序列化的结果（包含所有字段）
+     */
+    private static void assertSampleEquals(List<User> users, long index, User actual) {
+        if (index % 1000 == 0) {
+            Assert.assertEquals(JSON.toJSONString(users.get((int) index)), JSON.toJSONString(actual));
+        }
+    }
 }
@@ -0,0 +1,207 @@
+package com.decre.hadoop.hadoopbase;
+
+import com.decre.hadoop.hadoopbase.service.FileSystemPool;
+import com.decre.hadoop.hadoopbase.service.HdfsMetadataCache;
+import com.decre.hadoop.hadoopbase.service.HdfsService;
+import com.decre.hadoop.hadoopbase.service.batch.BatchResult;
+import com.decre.hadoop.hadoopbase.service.tiering.HdfsAgeBasedMover;
+import com.decre.hadoop.hadoopbase.service.usage.DiskUsage;
+import com.decre.hadoop.hadoopbase.service.usage.HdfsDiskUsage;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.StorageType;
+import org.apache.hadoop.hdfs.DFSConfigKeys;
+import org.apache.hadoop.hdfs.MiniDFSCluster;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 存储策略和纠删码只有HDFS支持，使用MiniDFSCluster测试
+ * <p>3个DataNode，每个DataNode有一块DISK和一块ARCHIVE</p>
+ */
+public class HdfsStoragePolicyTests {
+
+    private static final String XOR_POLICY = "XOR-2-1-1024k";
+
+    private static final long SEVEN_DAYS = TimeUnit.DAYS.toMillis(7);
+
+    private static MiniDFSCluster cluster;
+
+    private static HdfsService hdfsService;
+
+    private static HdfsAgeBasedMover mover;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        Configuration conf = new Configuration();
+        conf.setLong(DFSConfigKeys.DFS_BLOCK_SIZE_KEY, 1024 * 1024);
+        conf.setLong(DFSConfigKeys.DFS_HEARTBEAT_INTERVAL_KEY, 1);
+        conf.setLong(DFSConfigKeys.DFS_NAMENODE_REDUNDANCY_INTERVAL_SECONDS_KEY, 1);
+        conf.setLong(DFSConfigKeys.DFS_MOVER_MOVEDWINWIDTH_KEY, 2000);
+        cluster = new MiniDFSCluster.Builder(conf)
+                .numDataNodes(3)
+                .storagesPerDatanode(2)
+                .storageTypes(new StorageType[]{StorageType.DISK, StorageType.ARCHIVE})
+                .build();
+        cluster.waitActive();
+
+        Configuration clientConf = cluster.getConfiguration(0);
+        String uri = cluster.getURI().toString();
+        hdfsService = new HdfsService(clientConf, uri, new FileSystemPool(clientConf, uri, 1));
+        // 开启元数据缓存，验证修改策略后缓存被清除
+        hdfsService.setMetadataCache(new HdfsMetadataCache(TimeUnit.MINUTES.toMillis(10), 10000));
+        mover = new HdfsAgeBasedMover(hdfsService);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (cluster != null) {
+            cluster.shutdown();
+        }
+    }
+
+    /**
+     * 测试设置、查询、取消存储策略
+     */
+    @Test
+    public void testStoragePolicy() throws IOException {
+        hdfsService.mkdir("/policy");
+        Assert.assertTrue(hdfsService.listStoragePolicies().containsAll(Arrays.asList("HOT", "WARM", "COLD", "ALL_SSD")));
+        // 默认策略为HOT
+        Assert.assertEquals("HOT", hdfsService.getStoragePolicy("/policy"));
+
+        hdfsService.setStoragePolicy("/policy", "WARM");
+        createFile("/policy/a.txt", 1024, 0);
+        Assert.assertEquals("WARM", hdfsService.getStoragePolicy("/policy"));
+        // 文件继承目录的策略
+        Assert.assertEquals("WARM", hdfsService.getStoragePolicy("/policy/a.txt"));
+
+        hdfsService.unsetStoragePolicy("/policy");
+        Assert.assertEquals("HOT", hdfsService.getStoragePolicy("/policy/a.txt"));
+    }
+
+    /**
+     * 测试启用、设置、查询、取消纠删码策略
+     */
+    @Test
+    public void testErasureCodingPolicy() throws IOException {
+        hdfsService.enableErasureCodingPolicy(XOR_POLICY);
+        Assert.assertEquals("ENABLED", hdfsService.listErasureCodingPolicies().get(XOR_POLICY));
+
+        hdfsService.mkdir("/ec");
+        Assert.assertNull(hdfsService.getErasureCodingPolicy("/ec"));
+        hdfsService.setErasureCodingPolicy("/ec", XOR_POLICY);
+        createFile("/ec/a.txt", 3 * 1024 * 1024, 0);
+        Assert.assertEquals(XOR_POLICY, hdfsService.getErasureCodingPolicy("/ec/a.txt"));
+
+        hdfsService.unsetErasureCodingPolicy("/ec");
+        createFile("/ec/b.txt", 1024, 0);
+        Assert.assertNull(hdfsService.getErasureCodingPolicy("/ec/b.txt"));
+    }
+
+    /**
+     * 测试按年龄设置COLD策略并运行Mover，block迁移到ARCHIVE，新文件保持在DISK
+     */
+    @Test
+    public void testApplyStoragePolicyByAge() throws Exception {
+        createFile("/tiering/logs/old.log", 2 * 1024 * 1024, TimeUnit.DAYS.toMillis(30));
+        createFile("/tiering/logs/new.log", 1024, 0);
+
+        BatchResult<String> result = mover.applyStoragePolicy("/tiering", SEVEN_DAYS, "COLD", true);
+        System.out.println(result);
+        Assert.assertEquals(1, result.getSucceededCount());
+        Assert.assertEquals("/tiering/logs/old.log", result.getOutcomes().get(0).getPath());
+        Assert.assertEquals("COLD", hdfsService.getStoragePolicy("/tiering/logs/old.log"));
+        Assert.assertEquals("HOT", hdfsService.getStoragePolicy("/tiering/logs/new.log"));
+        assertStorageType("/tiering/logs/old.log", StorageType.ARCHIVE);
+        assertStorageType("/tiering/logs/new.log", StorageType.DISK);
+
+        // 已经是COLD的文件不会重复处理
+        Assert.assertEquals(0, mover.applyStoragePolicy("/tiering", SEVEN_DAYS, "COLD", false).getOutcomes().size());
+    }
+
+    /**
+     * 测试按年龄把旧文件重写为纠删码文件，内容和修改时间不变
+     */
+    @Test
+    public void testConvertToErasureCoding() throws IOException {
+        hdfsService.enableErasureCodingPolicy(XOR_POLICY);
+        long mtime = createFile("/convert/old.dat", 3 * 1024 * 1024 + 17, TimeUnit.DAYS.toMillis(30));
+        createFile("/convert/new.dat", 1024, 0);
+        byte[] before = hdfsService.openWithBytes("/convert/old.dat");
+        Assert.assertFalse(hdfsService.getFileStatus("/convert/old.dat").isErasureCoded());
+
+        BatchResult<String> result = mover.convertToErasureCoding("/convert", SEVEN_DAYS, XOR_POLICY);
+        System.out.println(result);
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals(1, result.getOutcomes().size());
+        Assert.assertEquals(XOR_POLICY, hdfsService.getErasureCodingPolicy("/convert/old.dat"));
+        Assert.assertNull(hdfsService.getErasureCodingPolicy("/convert/new.dat"));
+        Assert.assertArrayEquals(before, hdfsService.openWithBytes("/convert/old.dat"));
+        Assert.assertEquals(mtime, hdfsService.getFileStatus("/convert/old.dat").getModificationTime());
+        // 缓存中转换前的FileStatus已被清除
+        Assert.assertTrue(hdfsService.getFileStatus("/convert/old.dat").isErasureCoded());
+        Assert.assertFalse(hdfsService.checkExists("/convert/.ec-convert"));
+
+        // 再次执行不会重复转换
+        Assert.assertEquals(0, mover.convertToErasureCoding("/convert", SEVEN_DAYS, XOR_POLICY).getOutcomes().size());
+    }
+
+    /**
+     * 测试遍历统计纠删码文件占用的空间，与getContentSummary的结果一致
+     */
+    @Test
+    public void testDiskUsageWithErasureCoding() throws IOException {
+        hdfsService.enableErasureCodingPolicy(XOR_POLICY);
+        hdfsService.mkdir("/usage/ec");
+        hdfsService.setErasureCodingPolicy("/usage/ec", XOR_POLICY);
+        // 2个block group加一个不满一个cell的group、一个cell以内的小文件
+        createFile("/usage/ec/big.dat", 4 * 1024 * 1024 + 100, 0);
+        createFile("/usage/ec/small.dat", 100, 0);
+        createFile("/usage/replicated.dat", 1024 * 1024 + 1, 0);
+
+        try (HdfsDiskUsage diskUsage = new HdfsDiskUsage(hdfsService, 2)) {
+            DiskUsage summary = diskUsage.summarize("/usage");
+            DiskUsage walked = diskUsage.analyze("/usage", -1);
+            System.out.println(summary + "\n" + walked);
+            Assert.assertEquals(0, walked.getSummarizedDirectories());
+            Assert.assertEquals(summary.getBytes(), walked.getBytes());
+            Assert.assertEquals(summary.getSpaceConsumed(), walked.getSpaceConsumed());
+        }
+    }
+
+    /**
+     * 创建指定大小的文件，并把修改时间设置为age毫秒之前
+     */
+    private static long createFile(String path, int size, long age) throws IOException {
+        FileSystem fileSystem = hdfsService.getFileSystem();
+        Path hdfsPath = new Path(path);
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31 + size);
+        }
+        try (FSDataOutputStream out = fileSystem.create(hdfsPath, true)) {
+            out.write(data);
+        }
+        long mtime = System.currentTimeMillis() - age;
+        fileSystem.setTimes(hdfsPath, mtime, -1);
+        return mtime;
+    }
+
+    private static void assertStorageType(String path, StorageType storageType) {
+        for (BlockLocation location : hdfsService.getFileBlockLocations(path)) {
+            for (StorageType type : location.getStorageTypes()) {
+                Assert.assertEquals(path, storageType, type);
+            }
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.decre.hadoop.hadoopbase.mr;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.RawComparator;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.TaskCounter;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.hadoop.util.ToolRunner;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * 使用LocalJobRunner在本地文件系统运行wordcount
+ */
+public class WordCountMRTests {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static File inputDir;
+
+    /**
+     * 期望的单词计数
+     */
+    private static Map<String, Integer> expected = new TreeMap<>();
+
+    /**
+     * 生成近似Zipf分布的文本：少量高频词、大量低频词
+     */
+    @BeforeClass
+    public static void setUp() throws IOException {
+        inputDir = folder.newFolder("input");
+        Random random = new Random(42);
+        for (int file = 0; file < 4; file++) {
+            try (Writer writer = Files.newBufferedWriter(new File(inputDir, "part-" + file + ".txt").toPath(), StandardCharsets.UTF_8)) {
+                for (int line = 0; line < 5000; line++) {
+                    int words = 1 + random.nextInt(12);
+                    StringBuilder builder = new StringBuilder();
+                    for (int i = 0; i < words; i++) {
+                        String word = "w" + (int) Math.pow(2000, random.nextDouble());
+                        expected.merge(word, 1, Integer::sum);
+                        if (i > 0) {
+                            builder.append(' ');
+                        }
+                        builder.append(word);
+                    }
+                    writer.write(builder.toString());
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * 测试in-mapper combining、Combiner与不聚合的结果一致，并比较map输出记录数
+     */
+    @Test
+    public void testInMapperCombining() throws Exception {
+        Configuration plain = localConf();
+        plain.setBoolean(WordCountMR.IN_MAPPER_COMBINING, false);
+        Counters plainCounters = runAndVerify(plain, "plain");
+
+        Configuration combiner = localConf();
+        combiner.setBoolean(WordCountMR.IN_MAPPER_COMBINING, false);
+        combiner.setBoolean(WordCountMR.COMBINER, true);
+        Counters combinerCounters = runAndVerify(combiner, "combiner");
+
+        Counters inMapperCounters = runAndVerify(localConf(), "in-mapper");
+
+        // 内存上限很小时多次输出，结果仍然正确；每次提前输出前至少累计了maxBytes/29个不同单词（单词最长5字节）
+        Configuration smallTable = localConf();
+        long maxBytes = 8 * 1024;
+        smallTable.setLong(WordCountMR.IN_MAPPER_MAX_BYTES, maxBytes);
+        Counters smallTableCounters = runAndVerify(smallTable, "in-mapper-small");
+        long flushes = smallTableCounters.findCounter(WordCountMR.WordCountCounter.IN_MAPPER_FLUSHES).getValue();
+        long smallTableRecords = smallTableCounters.findCounter(TaskCounter.MAP_OUTPUT_RECORDS).getValue();
+        System.out.println("in-mapper-small flushes:" + flushes + "，map output:" + smallTableRecords + " records");
+        Assert.assertTrue(flushes > 4);
+        Assert.assertTrue(flushes <= 4 + smallTableRecords / (maxBytes / 29));
+
+        long words = expected.values().stream().mapToLong(Integer::longValue).sum();
+        long plainRecords = plainCounters.findCounter(TaskCounter.MAP_OUTPUT_RECORDS).getValue();
+        long inMapperRecords = inMapperCounters.findCounter(TaskCounter.MAP_OUTPUT_RECORDS).getValue();
+        System.out.println("words:" + words + "，distinct:" + expected.size()
+                + "，plain map output:" + plainRecords + " records/" + plainCounters.findCounter(TaskCounter.MAP_OUTPUT_MATERIALIZED_BYTES).getValue() + " bytes"
+                + "，combiner reduce input:" + combinerCounters.findCounter(TaskCounter.REDUCE_INPUT_RECORDS).getValue() + " records"
+                + "，in-mapper map output:" + inMapperRecords + " records/" + inMapperCounters.findCounter(TaskCounter.MAP_OUTPUT_MATERIALIZED_BYTES).getValue() + " bytes");
+        Assert.assertEquals(words, plainRecords);
+        Assert.assertEquals(words, inMapperCounters.findCounter(WordCountMR.WordCountCounter.INPUT_WORDS).getValue());
+        // 每个map task每个单词只输出一次
+        Assert.assertTrue(inMapperRecords <= 4L * expected.size());
+        Assert.assertTrue(combinerCounters.findCounter(TaskCounter.REDUCE_INPUT_RECORDS).getValue() <= 4L * expected.size());
+    }
+
+    /**
+     * 测试CombineTextInputFormat把4个小文件合并为1个map task
+     */
+    @Test
+    public void testCombineInputFormat() throws Exception {
+        Assert.assertEquals(4, splitCount(localConf()));
+
+        Configuration combine = localConf();
+        combine.setLong(WordCountMR.COMBINE_MAX_SPLIT_SIZE, 128L * 1024 * 1024);
+        Assert.assertEquals(1, splitCount(combine));
+        runAndVerify(combine, "combine-input");
+
+        // split上限小于单个文件时，文件也会被切分
+        combine.setLong(WordCountMR.COMBINE_MAX_SPLIT_SIZE, new File(inputDir, "part-0.txt").length() / 2);
+        Assert.assertTrue(splitCount(combine) > 4);
+    }
+
+    private static int splitCount(Configuration conf) throws Exception {
+        Job job = WordCountMR.createJob(conf, new Path(inputDir.toURI()), new Path(new File(folder.getRoot(), "unused").toURI()));
+        return ReflectionUtils.newInstance(job.getInputFormatClass(), conf).getSplits(job).size();
+    }
+
+    /**
+     * 测试通过ToolRunner传入参数运行
+     */
+    @Test
+    public void testToolRunner() throws Exception {
+        File output = new File(folder.getRoot(), "output-tool");
+        String[] args = {"-D", "mapreduce.framework.name=local", "-fs", "file:///",
+                "-r", "3", "-combine", "1048576", inputDir.getAbsolutePath(), output.getAbsolutePath()};
+        Assert.assertEquals(0, ToolRunner.run(new Configuration(), new WordCountMR(), args));
+        Assert.assertEquals(expected, readOutput(output));
+        Assert.assertEquals(3, output.listFiles((dir, name) -> name.startsWith("part-")).length);
+
+        // 输出路径已存在
+        Assert.assertEquals(2, ToolRunner.run(new Configuration(), new WordCountMR(), args));
+        args = Arrays.copyOf(args, args.length + 1);
+        System.arraycopy(args, 6, args, 7, 4);
+        args[6] = "-overwrite";
+        Assert.assertEquals(0, ToolRunner.run(new Configuration(), new WordCountMR(), args));
+
+        Assert.assertEquals(2, ToolRunner.run(new Configuration(), new WordCountMR(), new String[]{"-r"}));
+        Assert.assertEquals(2, ToolRunner.run(new Configuration(), new WordCountMR(), new String[]{"-x", "in", "out"}));
+        Assert.assertEquals(2, ToolRunner.run(new Configuration(), new WordCountMR(), new String[]{"in"}));
+    }
+
+    /**
+     * 测试抽样+TotalOrderPartitioner：part文件之间全局有序，每个reduce的输入记录数接近
+     * <p>关闭in-mapper combining，reduce的输入记录数就是part文件中计数之和</p>
+     */
+    @Test
+    public void testTotalOrder() throws Exception {
+        File output = new File(folder.getRoot(), "output-total-order");
+        String[] args = {"-D", "mapreduce.framework.name=local", "-fs", "file:///", "-D", WordCountMR.IN_MAPPER_COMBINING + "=false",
+                "-D", WordCountMR.SAMPLE_SEED + "=42", "-r", "4", "-total-order", inputDir.getAbsolutePath(), output.getAbsolutePath()};
+        Assert.assertEquals(0, ToolRunner.run(new Configuration(), new WordCountMR(), args));
+        Assert.assertEquals(expected, readOutput(output));
+        Assert.assertFalse(new File(folder.getRoot(), "_output-total-order_partitions").exists());
+
+        File[] parts = output.listFiles((dir, name) -> name.startsWith("part-"));
+        Arrays.sort(parts);
+        Assert.assertEquals(4, parts.length);
+        Text previous = null;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (File part : parts) {
+            long reduceInput = 0;
+            for (String line : Files.readAllLines(part.toPath(), StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                Text word = new Text(line.substring(0, tab));
+                Assert.assertTrue(previous + " " + word, previous == null || previous.compareTo(word) < 0);
+                previous = word;
+                reduceInput += Integer.parseInt(line.substring(tab + 1));
+            }
+            min = Math.min(min, reduceInput);
+            max = Math.max(max, reduceInput);
+        }
+        System.out.println("reduce input records, min:" + min + "，max:" + max);
+        Assert.assertTrue(max < 1.5 * min);
+    }
+
+    /**
+     * 测试map输出压缩和排序缓冲区参数：压缩后落盘字节数减少，缓冲区很小时溢写的记录数增加
+     */
+    @Test
+    public void testShuffleTuning() throws Exception {
+        Configuration plain = localConf();
+        plain.setBoolean(WordCountMR.IN_MAPPER_COMBINING, false);
+        Counters plainCounters = runAndVerify(plain, "shuffle-plain");
+
+        Configuration tuned = localConf();
+        tuned.setBoolean(WordCountMR.IN_MAPPER_COMBINING, false);
+        tuned.set(WordCountMR.MAP_OUTPUT_CODEC, "default");
+        tuned.setInt(Job.IO_SORT_MB, 1);
+        tuned.setFloat(Job.MAP_SORT_SPILL_PERCENT, 0.1f);
+        Counters tunedCounters = runAndVerify(tuned, "shuffle-tuned");
+
+        System.out.println("plain：" + WordCountMR.shuffleReport(plainCounters));
+        System.out.println("tuned：" + WordCountMR.shuffleReport(tunedCounters));
+        long mapOutputBytes = tunedCounters.findCounter(TaskCounter.MAP_OUTPUT_BYTES).getValue();
+        Assert.assertEquals(plainCounters.findCounter(TaskCounter.MAP_OUTPUT_BYTES).getValue(), mapOutputBytes);
+        Assert.assertTrue(tunedCounters.findCounter(TaskCounter.MAP_OUTPUT_MATERIALIZED_BYTES).getValue() * 2 < mapOutputBytes);
+        Assert.assertTrue(tunedCounters.findCounter(TaskCounter.SPILLED_RECORDS).getValue()
+                > plainCounters.findCounter(TaskCounter.SPILLED_RECORDS).getValue());
+
+        Configuration unknown = localConf();
+        unknown.set(WordCountMR.MAP_OUTPUT_CODEC, "nope");
+        try {
+            splitCount(unknown);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 不支持的压缩格式
+        }
+    }
+
+    /**
+     * 测试排序比较器直接比较序列化后的字节，结果与Text.compareTo一致
+     */
+    @Test
+    public void testRawComparator() throws Exception {
+        Job job = WordCountMR.createJob(localConf(), new Path(inputDir.toURI()), new Path(new File(folder.getRoot(), "unused").toURI()));
+        Assert.assertEquals(Text.Comparator.class, job.getSortComparator().getClass());
+
+        RawComparator<?> comparator = job.getSortComparator();
+        String[] words = {"", "a", "ab", "b", "w1", "w10", "w2", "Zebra", "中文", "naïve"};
+        for (String left : words) {
+            for (String right : words) {
+                byte[] leftBytes = WritableUtils.toByteArray(new Text(left));
+                byte[] rightBytes = WritableUtils.toByteArray(new Text(right));
+                int raw = comparator.compare(leftBytes, 0, leftBytes.length, rightBytes, 0, rightBytes.length);
+                Assert.assertEquals(left + " " + right, Integer.signum(new Text(left).compareTo(new Text(right))), Integer.signum(raw));
+            }
+        }
+    }
+
+    /**
+     * 测试哈希表的扩容、计数和清空
+     */
+    @Test
+    public void testBytesIntHashMap() throws Exception {
+        BytesIntHashMap map = new BytesIntHashMap(16);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100000; i++) {
+                byte[] key = ("key-" + i).getBytes(StandardCharsets.UTF_8);
+                map.add(key, 0, key.length, i % 7 + 1);
+            }
+        }
+        Assert.assertEquals(100000, map.size());
+        byte[] key = "xkey-99999x".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(3 * (99999 % 7 + 1), map.get(key, 1, key.length - 2));
+        Assert.assertEquals(0, map.get(key, 0, key.length));
+
+        long[] total = new long[1];
+        map.forEach((bytes, start, length, count) -> total[0] += count);
+        long expectedTotal = 0;
+        for (int i = 0; i < 100000; i++) {
+            expectedTotal += 3 * (i % 7 + 1);
+        }
+        Assert.assertEquals(expectedTotal, total[0]);
+
+        Assert.assertTrue(map.usedBytes() >= 24L * 100000 + 5 * 100000);
+        Assert.assertTrue(map.usedBytes() <= map.memoryBytes());
+        long grown = map.memoryBytes();
+        map.clear();
+        Assert.assertEquals(0, map.size());
+        Assert.assertEquals(0, map.usedBytes());
+        Assert.assertTrue(map.memoryBytes() < grown);
+        Assert.assertEquals(0, map.get(key, 1, key.length - 2));
+    }
+
+    /**
+     * 测试按空白和标点切分，多字节UTF-8字符保留在单词中
+     */
+    @Test
+    public void testWordTokenizer() {
+        Assert.assertEquals(Arrays.asList("Hello", "world", "it", "s", "a_b", "c1", "中文", "naïve"),
+                tokenize("  Hello,\tworld!!  it's (a_b) c1\r\n中文 -- naïve."));
+        Assert.assertEquals(Collections.emptyList(), tokenize(""));
+        Assert.assertEquals(Collections.emptyList(), tokenize(" \t,.;"));
+        Assert.assertEquals(Collections.singletonList("x"), tokenize("x"));
+
+        // Unicode空白和全角标点也是分隔符，全角字母、数字和々、〇保留在单词中
+        Assert.assertEquals(Arrays.asList("你好", "世界"), tokenize("你好，世界"));
+        Assert.assertEquals(Arrays.asList("第一句", "第二句", "注意", "内容"), tokenize("第一句。第二句！注意：内容"));
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), tokenize("a\u00A0b\u3000c\u2003d"));
+        Assert.assertEquals(Arrays.asList("书名", "引号", "zero", "width"), tokenize("《书名》“引号”\u2026zero\u200Bwidth"));
+        Assert.assertEquals(Arrays.asList("ＡＢＣ１２３", "人々", "〇号"), tokenize("ＡＢＣ１２３（人々）〇号"));
+        Assert.assertEquals(Arrays.asList("emoji\uD83D\uDE00", "x"), tokenize("emoji\uD83D\uDE00 x"));
+
+        // 只切分reset指定的范围
+        byte[] bytes = "skip words here".getBytes(StandardCharsets.UTF_8);
+        WordTokenizer tokenizer = new WordTokenizer();
+        tokenizer.reset(bytes, 5, 7);
+        Assert.assertTrue(tokenizer.next());
+        Assert.assertEquals("words", new String(tokenizer.bytes(), tokenizer.start(), tokenizer.length(), StandardCharsets.UTF_8));
+        Assert.assertTrue(tokenizer.next());
+        Assert.assertEquals("h", new String(tokenizer.bytes(), tokenizer.start(), tokenizer.length(), StandardCharsets.UTF_8));
+        Assert.assertFalse(tokenizer.next());
+    }
+
+    private static List<String> tokenize(String line) {
+        Text text = new Text(line);
+        WordTokenizer tokenizer = new WordTokenizer();
+        tokenizer.reset(text.getBytes(), 0, text.getLength());
+        List<String> result = new ArrayList<>();
+        while (tokenizer.next()) {
+            result.add(new String(tokenizer.bytes(), tokenizer.start(), tokenizer.length(), StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    private static Configuration localConf() {
+        Configuration conf = new Configuration();
+        conf.set("mapreduce.framework.name", "local");
+        conf.set("fs.defaultFS", "file:///");
+        return conf;
+    }
+
+    /**
+     * 运行Job，校验输出与期望的计数一致
+     */
+    private static Counters runAndVerify(Configuration conf, String name) throws Exception {
+        Path output = new Path(new File(folder.getRoot(), "output-" + name).toURI());
+        Job job = WordCountMR.createJob(conf, new Path(inputDir.toURI()), output);
+        Assert.assertTrue(job.waitForCompletion(false));
+        Assert.assertEquals(expected, readOutput(new File(output.toUri())));
+        return job.getCounters();
+    }
+
+    private static Map<String, Integer> readOutput(File outputDir) throws IOException {
+        Map<String, Integer> result = new TreeMap<>();
+        File[] parts = outputDir.listFiles((dir, name) -> name.startsWith("part-"));
+        Assert.assertNotNull(parts);
+        for (File part : parts) {
+            for (String line : Files.readAllLines(part.toPath(), StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                Assert.assertNull(line, result.put(fields[0], Integer.parseInt(fields[1])));
+            }
+        }
+        return result;
+    }
+}
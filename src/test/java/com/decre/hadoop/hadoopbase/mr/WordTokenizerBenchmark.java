@@ -0,0 +1,96 @@
+package com.decre.hadoop.hadoopbase.mr;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WordCountMapper切分单词的基准测试：每秒处理的行数（ops/s），以及GC profiler给出的分配速率和每行分配的字节数（gc.alloc.rate.norm）
+ * <p>splitAndAllocate是原来的实现：toString、split(" ")，每个单词new Text和new IntWritable；
+ * byteTokenizer是WordTokenizer直接扫描字节并复用Text、IntWritable。</p>
+ * <p>运行main方法，不在mvn test中执行。</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WordTokenizerBenchmark {
+
+    private static final int LINES = 1000;
+
+    private static final String[] SEPARATORS = {" ", " ", " ", "  ", ", ", ". ", "\t", " - "};
+
+    private Text[] lines;
+
+    private final WordTokenizer tokenizer = new WordTokenizer();
+
+    private final Text word = new Text();
+
+    private final IntWritable one = new IntWritable(1);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        lines = new Text[LINES];
+        for (int i = 0; i < LINES; i++) {
+            StringBuilder builder = new StringBuilder();
+            int words = 5 + random.nextInt(20);
+            for (int j = 0; j < words; j++) {
+                builder.append("word").append((int) Math.pow(5000, random.nextDouble()));
+                builder.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+            }
+            lines[i] = new Text(builder.toString());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void splitAndAllocate(Blackhole blackhole) {
+        for (Text line : lines) {
+            for (String token : line.toString().split(" ")) {
+                blackhole.consume(new Text(token));
+                blackhole.consume(new IntWritable(1));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void byteTokenizer(Blackhole blackhole) {
+        for (Text line : lines) {
+            tokenizer.reset(line.getBytes(), 0, line.getLength());
+            while (tokenizer.next()) {
+                word.set(tokenizer.bytes(), tokenizer.start(), tokenizer.length());
+                blackhole.consume(word);
+                blackhole.consume(one);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WordTokenizerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}